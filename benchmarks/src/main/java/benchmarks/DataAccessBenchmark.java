@@ -0,0 +1,67 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.InMemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InMemoryDataAccess with several threads hitting one shared store: a mix of
+ * readers looking up auth tokens and games while writers update games.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataAccessBenchmark {
+
+    private static final int GAMES = 1000;
+    private static final int USERS = 1000;
+
+    private InMemoryDataAccess dao;
+
+    @Setup
+    public void setUp() throws DataAccessException {
+        dao = new InMemoryDataAccess();
+        for (int i = 0; i < USERS; i++) {
+            dao.createUser(new UserData("user" + i, "password", "user" + i + "@mail.com"));
+            dao.createAuth(new AuthData("token" + i, "user" + i));
+        }
+        for (int i = 0; i < GAMES; i++) {
+            dao.createGame(new GameData(0, "user" + i, null, "game" + i, new ChessGame()));
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public GameData readGame() throws DataAccessException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        dao.getAuth("token" + random.nextInt(USERS));
+        return dao.getGame(1 + random.nextInt(GAMES)).orElseThrow();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void updateGame() throws DataAccessException {
+        int id = 1 + ThreadLocalRandom.current().nextInt(GAMES);
+        GameData game = dao.getGame(id).orElseThrow();
+        dao.updateGame(new GameData(id, game.whiteUsername(), "opponent", game.gameName(), game.game()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<GameData> listGames() throws DataAccessException {
+        return dao.listGames();
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation and game status checks on ChessGame, the calls the
+ * server makes after every move.
+ * <p>
+ * ChessGame keeps the status and the legal moves until the position changes,
+ * which would turn every call after the first into a lookup. Each benchmark
+ * resets the board first, a few field writes, so it measures the first call
+ * after a move the way the server sees it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStatusBenchmark {
+
+    @Param({"start", "middlegame", "check", "checkmate", "stalemate"})
+    public String position;
+
+    private ChessGame game;
+    private Collection<ChessPosition> pieces;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(Positions.fen(position));
+        pieces = game.getBoard().allTeamPosition(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public void validMovesForEveryPiece(Blackhole blackhole) {
+        clearCaches();
+        for (ChessPosition piece : pieces) {
+            Collection<ChessMove> moves = game.validMoves(piece);
+            blackhole.consume(moves);
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        clearCaches();
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        clearCaches();
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    // setBoard drops the cached status and legal moves
+    private void clearCaches() {
+        game.setBoard(game.getBoard());
+    }
+}
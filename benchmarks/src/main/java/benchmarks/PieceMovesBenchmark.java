@@ -0,0 +1,61 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation through ChessPiece.pieceMoves, one white piece
+ * of each type in a busy middlegame, as a new collection and into a reused
+ * {@link MoveList}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard board;
+    private ChessPiece piece;
+    private ChessPosition position;
+    private final MoveList buffer = new MoveList();
+
+    @Setup
+    public void setUp() {
+        board = Fen.parse(Positions.MIDDLEGAME).getBoard();
+        for (int row = 1; row <= 8 && position == null; row++) {
+            for (int col = 1; col <= 8 && position == null; col++) {
+                ChessPiece candidate = board.getPiece(new ChessPosition(row, col));
+                if (candidate != null && candidate.getPieceType() == type
+                        && candidate.getTeamColor() == chess.ChessGame.TeamColor.WHITE) {
+                    piece = candidate;
+                    position = new ChessPosition(row, col);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMoves() {
+        return piece.pieceMoves(board, position);
+    }
+
+    @Benchmark
+    public MoveList pieceMovesIntoSink() {
+        buffer.clear();
+        piece.pieceMoves(board, position, buffer);
+        return buffer;
+    }
+}
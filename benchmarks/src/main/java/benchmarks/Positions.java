@@ -0,0 +1,28 @@
+package benchmarks;
+
+/**
+ * Curated positions shared by the benchmarks, picked to cover an opening, a
+ * busy middlegame and each game status.
+ */
+final class Positions {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+    static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+    static final String CHECK = "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5Q2/PPPP1qPP/RNB1K1NR w - - 0 1";
+    static final String CHECKMATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 1 3";
+    static final String STALEMATE = "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1";
+
+    private Positions() {
+    }
+
+    static String fen(String name) {
+        return switch (name) {
+            case "start" -> START;
+            case "middlegame" -> MIDDLEGAME;
+            case "check" -> CHECK;
+            case "checkmate" -> CHECKMATE;
+            case "stalemate" -> STALEMATE;
+            default -> throw new IllegalArgumentException("Unknown position " + name);
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.engine.Pruning;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to a fixed depth over a small suite of positions, with each of the
+ * search's pruning techniques on its own, all of them, and none. The node
+ * counter shows how much of the tree each one cuts away, the time whether
+ * that pays for its own cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PruningBenchmark {
+
+    private static final String[] SUITE = {
+            Positions.START,
+            Positions.MIDDLEGAME,
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+    };
+    private static final int TABLE_MB = 16;
+
+    @Param({"none", "nullMove", "lateMoveReductions", "futility", "reverseFutility", "all"})
+    public String pruning;
+
+    @Param({"6"})
+    public int depth;
+
+    private ChessGame[] games;
+    private Search search;
+
+    /**
+     * Nodes searched over each iteration, reported next to the time
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        games = new ChessGame[SUITE.length];
+        for (int i = 0; i < SUITE.length; i++) {
+            games[i] = Fen.parse(SUITE[i]);
+        }
+        search = new Search(new TranspositionTable(TABLE_MB), switch (pruning) {
+            case "none" -> Pruning.NONE;
+            case "nullMove" -> Pruning.NONE.withNullMove(true);
+            case "lateMoveReductions" -> Pruning.NONE.withLateMoveReductions(true);
+            case "futility" -> Pruning.NONE.withFutility(true);
+            case "reverseFutility" -> Pruning.NONE.withReverseFutility(true);
+            case "all" -> Pruning.ALL;
+            default -> throw new IllegalArgumentException("Unknown pruning " + pruning);
+        });
+    }
+
+    // every run starts from an empty table, or later ones would just read back the earlier results
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.transpositionTable().clear();
+    }
+
+    @Benchmark
+    public int searchSuite(Nodes counter) {
+        int scores = 0;
+        for (ChessGame game : games) {
+            SearchResult result = search.search(game, SearchLimits.depth(depth));
+            counter.nodes += result.nodes();
+            scores += result.score();
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.messages.ServerMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding the websocket messages the server broadcasts after each move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerMessageBenchmark {
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(Positions.MIDDLEGAME);
+    }
+
+    @Benchmark
+    public String loadGame() {
+        return gson.toJson(ServerMessage.loadGame(game));
+    }
+
+    @Benchmark
+    public String notification() {
+        return gson.toJson(ServerMessage.notification("player moved from 2,5 to 4,5"));
+    }
+
+    @Benchmark
+    public String error() {
+        return gson.toJson(ServerMessage.error("Error: illegal move"));
+    }
+}
@@ -291,7 +291,7 @@ public class ChessClient {
         int col = file - 'a' + 1;
         int row = rankChar - '0';
 
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
 
@@ -318,7 +318,7 @@ public class ChessClient {
             System.out.print(row + " ");
             for (char col = startCol; col != endCol + colStep; col += colStep) {
 
-                ChessPosition pos = new ChessPosition(row, col - 'a' + 1);
+                ChessPosition pos = ChessPosition.of(row, col - 'a' + 1);
                 ChessPiece piece = board.getPiece(pos);
 
                 boolean lightSquare = ((row + (col - 'a' + 1)) % 2 == 0);
@@ -416,7 +416,7 @@ public class ChessClient {
             System.out.print(row + " ");
             for (char col = startCol; col != endCol + colStep; col += colStep) {
 
-                ChessPosition pos = new ChessPosition(row, col - 'a' + 1);
+                ChessPosition pos = ChessPosition.of(row, col - 'a' + 1);
                 ChessPiece piece = board.getPiece(pos);
 
                 boolean lightSquare = ((row + (col - 'a' + 1)) % 2 == 0);
@@ -73,6 +73,12 @@ public class GameplayClient implements WebSocket.Listener {
         send(cmd);
     }
 
+    // results come back as notifications, one per search depth
+    public void analyze(int lines) {
+        var cmd = new UserGameCommand(UserGameCommand.CommandType.ANALYZE, authToken, gameID, lines);
+        send(cmd);
+    }
+
     // WebSocket.Listener callbacks
     @Override
     public void onOpen(WebSocket webSocket) {
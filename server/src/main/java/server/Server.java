@@ -1,6 +1,9 @@
 package server;
 
 import chess.ChessGame;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
 import com.google.gson.Gson;
 import dataaccess.*;
 import io.javalin.http.Context;
@@ -16,27 +19,46 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import io.javalin.websocket.WsContext;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
 
 public class Server {
+    // analysis runs on its own few threads so it never holds up a websocket thread
+    private static final int ANALYSIS_THREADS = 2;
+    private static final long ANALYSIS_MILLIS = 5_000;
+    private static final int MAX_ANALYSIS_LINES = 5;
+    private static final int ANALYSIS_TABLE_MB = 8;
+
     private final Javalin javalin;
     private final Gson gson = new Gson();
-    private final DataAccess dao = new MySQLDataAccess();
-    private final UserService userService = new UserService(dao);
-    private final GameService gameService = new GameService(dao);
+    private final DataAccess dao;
+    private final UserService userService;
+    private final GameService gameService;
     private final Map<Integer, Set<WsContext>> gameSession = new HashMap<>();
     private final Map<WsContext, Integer> toGame = new HashMap<>();
     private final Set<Integer> finishedGames = new HashSet<>();
+    private final ExecutorService analysisPool = Executors.newFixedThreadPool(ANALYSIS_THREADS,
+            Thread.ofPlatform().daemon().name("analysis-", 1).factory());
+    // the running analysis of each connection, a new request replaces it
+    private final Map<WsContext, Analysis> analyses = new ConcurrentHashMap<>();
+    // connections with a task waiting on the pool, so repeated requests don't pile up
+    private final Set<WsContext> queuedAnalyses = ConcurrentHashMap.newKeySet();
 
     public Server() {
-        try {
-            DatabaseManager.createDatabase();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize database", e);
-        }
+        this(mySQLDataAccess());
+    }
+
+    // tests run the server over the in-memory store
+    Server(DataAccess dao) {
+        this.dao = dao;
+        userService = new UserService(dao);
+        gameService = new GameService(dao);
         javalin = Javalin.create(config -> {
             config.staticFiles.add("web");
             config.jsonMapper(new JavalinGson());
@@ -102,11 +124,22 @@ public class Server {
             });
             ws.onClose(ctx->{Integer gameId = toGame.remove(ctx);
                 checkGameId(gameId, ctx);
+                stopAnalysis(ctx);
             });
             ws.onError(ctx-> System.out.println("Error: " +ctx.error()));
         });
     }
 
+    private static DataAccess mySQLDataAccess() {
+        DataAccess dao = new MySQLDataAccess();
+        try {
+            DatabaseManager.createDatabase();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize database", e);
+        }
+        return dao;
+    }
+
     private void joinGameEndpoint(@NotNull Context ctx) {
         try {
             String token = ctx.header("authorization");
@@ -178,6 +211,78 @@ public class Server {
             case MAKE_MOVE -> handleMakeMove(ctx, command);
             case LEAVE -> handleLeave(ctx, command);
             case RESIGN -> handleResign(ctx, command);
+            case ANALYZE -> handleAnalyze(ctx, command);
+        }
+    }
+
+    private void handleAnalyze(WsContext ctx, UserGameCommand command) {
+        try {
+            String authToken = command.getAuthToken();
+            int gameId = command.getGameID();
+            if (authToken == null || gameId == 0) {
+                send(ctx, ServerMessage.error("Error: missing authToken or gameID"));
+                return;
+            }
+            var auth = dao.getAuth(authToken).orElseThrow(() -> new Exception("Invalid authToken"));
+            var gameData = dao.getGame(gameId).orElseThrow(() -> new Exception("Game doesn't exist"));
+            // the engine would play for whoever asks, so a live game is only analysed for its observers
+            String username = auth.username();
+            boolean isPlayer = username.equals(gameData.whiteUsername()) || username.equals(gameData.blackUsername());
+            boolean isObserver = !isPlayer && Integer.valueOf(gameId).equals(toGame.get(ctx));
+            if (!isObserver && !finishedGames.contains(gameId)) {
+                send(ctx, ServerMessage.error("Error: only observers can analyze a game in progress"));
+                return;
+            }
+            int lines = command.getLines() == null ? 1 : command.getLines();
+            if (lines < 1 || lines > MAX_ANALYSIS_LINES) {
+                send(ctx, ServerMessage.error("Error: lines must be between 1 and " + MAX_ANALYSIS_LINES));
+                return;
+            }
+
+            // replaces the connection's earlier request, and only queues a task if none is waiting yet
+            Analysis analysis = new Analysis(gameData.game(), SearchLimits.time(ANALYSIS_MILLIS).withMultiPv(lines));
+            Analysis previous = analyses.put(ctx, analysis);
+            if (previous != null) {
+                previous.cancel();
+            }
+            if (queuedAnalyses.add(ctx)) {
+                analysisPool.execute(() -> runAnalysis(ctx));
+            }
+        } catch (Exception e) {
+            send(ctx, ServerMessage.error("Error: " + e.getMessage()));
+        }
+    }
+
+    // Runs on the analysis pool: whatever the connection asked for last, if it still wants it
+    private void runAnalysis(WsContext ctx) {
+        queuedAnalyses.remove(ctx);
+        Analysis analysis = analyses.get(ctx);
+        Search search = analysis == null ? null : analysis.start();
+        if (search == null) {
+            return;
+        }
+        try {
+            search.search(analysis.game, analysis.limits, result -> {
+                if (!analysis.isCancelled()) {
+                    send(ctx, ServerMessage.analysis(result));
+                }
+            });
+            if (!analysis.isCancelled()) {
+                send(ctx, ServerMessage.notification("Analysis finished"));
+            }
+        } catch (CancellationException e) {
+            // replaced or disconnected before it started
+        } catch (Exception e) {
+            send(ctx, ServerMessage.error("Error: " + e.getMessage()));
+        } finally {
+            analyses.remove(ctx, analysis);
+        }
+    }
+
+    private void stopAnalysis(WsContext ctx) {
+        Analysis analysis = analyses.remove(ctx);
+        if (analysis != null) {
+            analysis.cancel();
         }
     }
 
@@ -186,11 +291,11 @@ public class Server {
             String authToken = command.getAuthToken();
             int gameId = command.getGameID();
             if (authToken == null || gameId == 0) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: missing authToken or gameID")));
+                send(ctx, ServerMessage.error("Error: missing authToken or gameID"));
                 return;
             }
             if (finishedGames.contains(gameId)) {
-                ctx.send(gson.toJson(ServerMessage.error(": game is already over")));
+                send(ctx, ServerMessage.error(": game is already over"));
                 return;
             }
             var auth = dao.getAuth(authToken).orElseThrow(() -> new Exception("Invalid authToken"));
@@ -205,7 +310,7 @@ public class Server {
             boolean isBlack = username.equals(blackUser);
 
             if (!isWhite && !isBlack) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: observers cannot resign")));
+                send(ctx, ServerMessage.error("Error: observers cannot resign"));
                 return;
             }
 
@@ -221,7 +326,7 @@ public class Server {
             dao.updateGame(updated);
             broadcastToAll(gameId, ServerMessage.notification(username + " resigned."));
         } catch (Exception e) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: " + e.getMessage())));
+                send(ctx, ServerMessage.error("Error: " + e.getMessage()));
         }
     }
 
@@ -266,12 +371,12 @@ public class Server {
                     move.getEndPosition().getColumn());
 
             if (authToken == null || gameId == 0 || move == null) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: missing authToken, gameID, or move")));
+                send(ctx, ServerMessage.error("Error: missing authToken, gameID, or move"));
                 return;
             }
 
             if (finishedGames.contains(gameId)) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: game is over")));
+                send(ctx, ServerMessage.error("Error: game is over"));
                 return;
             }
 
@@ -290,18 +395,18 @@ public class Server {
             }
 
             if (playerColor == null) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: observers cannot move")));
+                send(ctx, ServerMessage.error("Error: observers cannot move"));
                 return;
             }
 
             if (game.getTeamTurn() != playerColor) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: not your turn")));
+                send(ctx, ServerMessage.error("Error: not your turn"));
                 return;
             }
             try {
                 game.makeMove(move);
             } catch (Exception e) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: illegal move")));
+                send(ctx, ServerMessage.error("Error: illegal move"));
                 return;
             }
             GameData updated = new GameData(gameData.gameID(),
@@ -323,13 +428,14 @@ public class Server {
 
             String opponentUser = (opponent == ChessGame.TeamColor.WHITE) ? gameData.whiteUsername() : gameData.blackUsername();
 
-            if (game.isInCheckmate(opponent)) {
-                broadcastToAll(gameId, ServerMessage.notification(opponentUser + " is in checkmate"));
-            } else if (game.isInCheck(opponent)) {
-                broadcastToAll(gameId, ServerMessage.notification(opponentUser + " is in check"));
+            switch (game.status(opponent)) {
+                case CHECKMATE -> broadcastToAll(gameId, ServerMessage.notification(opponentUser + " is in checkmate"));
+                case CHECK -> broadcastToAll(gameId, ServerMessage.notification(opponentUser + " is in check"));
+                case STALEMATE -> broadcastToAll(gameId, ServerMessage.notification(opponentUser + " is in stalemate"));
+                default -> { }
             }
         } catch (Exception e) {
-            ctx.send(gson.toJson(ServerMessage.error("Error: " + e.getMessage())));
+            send(ctx, ServerMessage.error("Error: " + e.getMessage()));
         }
     }
 
@@ -339,7 +445,7 @@ public class Server {
             int gameId = command.getGameID();
 
             if (authToken == null || gameId == 0) {
-                ctx.send(gson.toJson(ServerMessage.error("Error: missing authToken or gameID")));
+                send(ctx, ServerMessage.error("Error: missing authToken or gameID"));
                 return;
             }
             var auth = dao.getAuth(authToken).orElseThrow(() -> new DataAccessException("Invalid authToken"));
@@ -349,7 +455,7 @@ public class Server {
             toGame.put(ctx, gameId);
             gameSession.computeIfAbsent(gameId, k -> new HashSet<>()).add(ctx);
             var loadMsg = ServerMessage.loadGame(gameData.game());
-            ctx.send(gson.toJson(loadMsg));
+            send(ctx, loadMsg);
 
             String color = null;
             if (username.equals(gameData.whiteUsername())) {
@@ -365,7 +471,7 @@ public class Server {
 
             broadcastToOthers(gameId, ctx, ServerMessage.notification(text));
         } catch (Exception e) {
-            ctx.send(gson.toJson(ServerMessage.error("Error: " + e.getMessage())));
+            send(ctx, ServerMessage.error("Error: " + e.getMessage()));
         }
     }
 
@@ -379,7 +485,7 @@ public class Server {
 
         for (var c : set){
             if (!c.sessionId().equals(senderSession)){
-                c.send(json);
+                send(c, json);
             }
         }
     }
@@ -391,16 +497,68 @@ public class Server {
         }
         String json = gson.toJson(message);
         for (var c : set) {
-            c.send(json);
+            send(c, json);
+        }
+    }
+
+    private void send(WsContext ctx, ServerMessage message) {
+        send(ctx, gson.toJson(message));
+    }
+
+    // Analysis threads write alongside the websocket threads, so sends to a connection go one at a time
+    private void send(WsContext ctx, String json) {
+        synchronized (ctx.session) {
+            if (ctx.session.isOpen()) {
+                ctx.send(json);
+            }
         }
     }
 
+    // One connection's analysis request. The search, and with it the table, is only made once a pool thread
+    // picks the request up, so requests that get replaced while waiting cost next to nothing.
+    private static final class Analysis {
+        private final ChessGame game;
+        private final SearchLimits limits;
+        private Search search;
+        private boolean cancelled;
+
+        Analysis(ChessGame game, SearchLimits limits) {
+            this.game = game;
+            this.limits = limits;
+        }
+
+        // the search to run, or null if cancelled or already started
+        synchronized Search start() {
+            if (cancelled || search != null) {
+                return null;
+            }
+            search = new Search(new TranspositionTable(ANALYSIS_TABLE_MB));
+            return search;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        void cancel() {
+            Search running;
+            synchronized (this) {
+                cancelled = true;
+                running = search;
+            }
+            if (running != null) {
+                running.cancel();
+            }
+        }
+    }
 
     public int run(int desiredPort) {
         javalin.start(desiredPort);
         return javalin.port();
     }
     public void stop() {
+        analyses.values().forEach(Analysis::cancel);
+        analysisPool.shutdown();
         javalin.stop();
     }
 }
@@ -0,0 +1,99 @@
+package server;
+
+import chess.ChessGame;
+import com.google.gson.GsonBuilder;
+import dataaccess.InMemoryDataAccess;
+import org.junit.jupiter.api.*;
+import passoff.model.*;
+import passoff.server.TestServerFacade;
+import passoff.websocket.TestCommand;
+import passoff.websocket.TestMessage;
+import passoff.websocket.WebsocketTestingEnvironment;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyzeTests {
+    private static final long WAIT_MILLIS = 3000;
+
+    private static Server server;
+    private static TestServerFacade serverFacade;
+    private static WebsocketTestingEnvironment environment;
+    private String white;
+    private String black;
+    private String observer;
+    private int gameID;
+
+    @BeforeAll
+    public static void init() throws URISyntaxException {
+        server = new Server(new InMemoryDataAccess());
+        var port = Integer.toString(server.run(0));
+        serverFacade = new TestServerFacade("localhost", port);
+        environment = new WebsocketTestingEnvironment("localhost", port, "/ws", new GsonBuilder());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @BeforeEach
+    public void setup() {
+        serverFacade.clear();
+        white = register("white");
+        black = register("black");
+        observer = register("observer");
+        gameID = serverFacade.createGame(new TestCreateRequest("analysis"), white).getGameID();
+        serverFacade.joinPlayer(new TestJoinRequest(ChessGame.TeamColor.WHITE, gameID), white);
+        serverFacade.joinPlayer(new TestJoinRequest(ChessGame.TeamColor.BLACK, gameID), black);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        environment.disconnectAll();
+    }
+
+    @Test
+    public void playerCannotAnalyzeLiveGame() {
+        assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, send("white", white, UserGameCommand.CommandType.CONNECT));
+        assertEquals(ServerMessage.ServerMessageType.ERROR, send("white", white, UserGameCommand.CommandType.ANALYZE));
+    }
+
+    @Test
+    public void unconnectedUserCannotAnalyzeLiveGame() {
+        assertEquals(ServerMessage.ServerMessageType.ERROR, send("observer", observer, UserGameCommand.CommandType.ANALYZE));
+    }
+
+    @Test
+    public void observerCanAnalyzeLiveGame() {
+        assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, send("observer", observer, UserGameCommand.CommandType.CONNECT));
+        assertEquals(ServerMessage.ServerMessageType.NOTIFICATION, send("observer", observer, UserGameCommand.CommandType.ANALYZE));
+    }
+
+    @Test
+    public void playerCanAnalyzeFinishedGame() {
+        assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, send("white", white, UserGameCommand.CommandType.CONNECT));
+        assertEquals(ServerMessage.ServerMessageType.NOTIFICATION, send("white", white, UserGameCommand.CommandType.RESIGN));
+        assertEquals(ServerMessage.ServerMessageType.NOTIFICATION, send("white", white, UserGameCommand.CommandType.ANALYZE));
+    }
+
+    private String register(String name) {
+        TestAuthResult result = serverFacade.register(new TestUser(name, name, name + "@chess.com"));
+        assertEquals(200, serverFacade.getStatusCode(), "registering " + name);
+        return result.getAuthToken();
+    }
+
+    // the type of the first message the sender gets back
+    private ServerMessage.ServerMessageType send(String username, String authToken, UserGameCommand.CommandType type) {
+        Map<String, List<TestMessage>> messages = environment.exchange(username,
+                new TestCommand(type, authToken, gameID), Map.of(username, 1), WAIT_MILLIS);
+        List<TestMessage> received = messages.get(username);
+        assertFalse(received.isEmpty(), "no reply to " + type);
+        return received.get(0).getServerMessageType();
+    }
+}
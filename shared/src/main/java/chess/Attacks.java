@@ -0,0 +1,242 @@
+package chess;
+
+/**
+ * Precomputed attack masks for every piece on every square.
+ * <p>
+ * Knight, king and pawn attacks are plain lookups. Rook and bishop attacks use
+ * magic bitboards: the blockers on a ray are multiplied by a magic number so
+ * the top bits index straight into a table of attack sets. The magic numbers
+ * below came out of a seeded trial-and-error search; any value that maps every
+ * blocker pattern without a conflicting collision works.
+ */
+public final class Attacks {
+
+    private static final long[] KNIGHT = new long[Bitboards.SQUARES];
+    private static final long[] KING = new long[Bitboards.SQUARES];
+    private static final long[][] PAWN = new long[2][Bitboards.SQUARES];
+
+    private static final int[][] ROOK_DIRECTIONS = {{0,1},{1,0},{0,-1},{-1,0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1,1},{1,-1},{-1,1},{-1,-1}};
+
+    private static final long[] ROOK_MAGIC_NUMBERS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+            0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+            0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+            0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+            0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGIC_NUMBERS = {
+            0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+            0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+            0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+            0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+            0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+            0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+            0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+            0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+            0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+            0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+            0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+            0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+            0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+            0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+            0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+            0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final Magic[] ROOK_MAGICS = new Magic[Bitboards.SQUARES];
+    private static final Magic[] BISHOP_MAGICS = new Magic[Bitboards.SQUARES];
+
+    // For squares sharing a row, column or diagonal: the squares strictly between
+    // them, and the whole line through both. Zero for squares that do not line up.
+    private static final long[][] BETWEEN = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+    private static final long[][] LINE = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+
+    static {
+        int[][] knightJumps = {{2,1},{2,-1},{1,-2},{-1,-2},{-2,-1},{-2,1},{-1,2},{1,2}};
+        int[][] kingSteps = {{1,1},{1,0},{1,-1},{0,-1},{-1,-1},{-1,0},{-1,1},{0,1}};
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            KNIGHT[square] = steps(square, knightJumps);
+            KING[square] = steps(square, kingSteps);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, new int[][]{{1,-1},{1,1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, new int[][]{{-1,-1},{-1,1}});
+        }
+
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            ROOK_MAGICS[square] = Magic.build(square, ROOK_DIRECTIONS, ROOK_MAGIC_NUMBERS[square]);
+            BISHOP_MAGICS[square] = Magic.build(square, BISHOP_DIRECTIONS, BISHOP_MAGIC_NUMBERS[square]);
+        }
+
+        for (int a = 0; a < Bitboards.SQUARES; a++) {
+            for (int b = 0; b < Bitboards.SQUARES; b++) {
+                long bitA = Bitboards.bit(a);
+                long bitB = Bitboards.bit(b);
+                if (a != b && (rook(a, 0L) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+                    LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | bitA | bitB;
+                } else if (a != b && (bishop(a, 0L) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+                    LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color standing on square attacks
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @return squares a pawn of the given color on square can push to: one
+     * step, plus two from its starting row, stopping at any piece
+     */
+    public static long pawnPushes(ChessGame.TeamColor color, int square, long occupied) {
+        long empty = ~occupied;
+        if (color == ChessGame.TeamColor.WHITE) {
+            long single = (Bitboards.bit(square) << 8) & empty;
+            long twice = Bitboards.row(square) == 2 ? (single << 8) & empty : 0L;
+            return single | twice;
+        }
+        long single = (Bitboards.bit(square) >>> 8) & empty;
+        long twice = Bitboards.row(square) == 7 ? (single >>> 8) & empty : 0L;
+        return single | twice;
+    }
+
+    public static long rook(int square, long occupied) {
+        return ROOK_MAGICS[square].attacks(occupied);
+    }
+
+    public static long bishop(int square, long occupied) {
+        return BISHOP_MAGICS[square].attacks(occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared row, column
+     * or diagonal, or 0 if they do not line up
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the full row, column or diagonal through both squares, or 0 if
+     * they do not line up
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * @return squares a piece of the given type on square attacks, pawns
+     * count diagonal captures only
+     */
+    public static long of(ChessPiece.PieceType type, ChessGame.TeamColor color, int square, long occupied) {
+        return switch (type) {
+            case KING -> king(square);
+            case QUEEN -> queen(square, occupied);
+            case BISHOP -> bishop(square, occupied);
+            case KNIGHT -> knight(square);
+            case ROOK -> rook(square, occupied);
+            case PAWN -> pawn(color, square);
+        };
+    }
+
+    private static long steps(int square, int[][] offsets) {
+        long mask = 0L;
+        int row = Bitboards.row(square);
+        int col = Bitboards.column(square);
+        for (int[] offset : offsets) {
+            int r = row + offset[0];
+            int c = col + offset[1];
+            if (Bitboards.onBoard(r, c)) {
+                mask |= Bitboards.bit(Bitboards.square(r, c));
+            }
+        }
+        return mask;
+    }
+
+    // Walks each ray until it leaves the board or hits a blocker (the blocker is included)
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long mask = 0L;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (Bitboards.onBoard(row, col)) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                mask |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    // The squares whose occupancy can change the attack set, i.e. each ray minus its last square
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (Bitboards.onBoard(row + dir[0], col + dir[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    private record Magic(long mask, long magic, int shift, long[] table) {
+
+        long attacks(long occupied) {
+            return table[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+
+        static Magic build(int square, int[][] directions, long magic) {
+            long mask = relevantBlockers(square, directions);
+            int bits = Long.bitCount(mask);
+            long[] table = new long[1 << bits];
+
+            // enumerate every subset of the mask and store its attack set
+            long subset = 0L;
+            do {
+                int index = (int) ((subset * magic) >>> (64 - bits));
+                table[index] = slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+            return new Magic(mask, magic, 64 - bits, table);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit square masks used by {@link ChessBoard}.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (bit 0) and moving
+ * across each row before going up, so row 8, column 8 is bit 63.
+ */
+public final class Bitboards {
+
+    public static final int SQUARES = 64;
+    public static final int PIECE_KINDS = 12;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return the square index for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return the square index of a position on the board
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-based row of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return true if the row and column are on the board
+     */
+    public static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * Index of the mask holding one kind of piece, 0-5 for white and 6-11 for black
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(piece.getTeamColor(), piece.getPieceType());
+    }
+}
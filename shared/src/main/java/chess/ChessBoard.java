@@ -3,7 +3,6 @@ package chess;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -15,6 +14,26 @@ public class ChessBoard {
 
 
     private ChessPiece [][] squares = new ChessPiece[8][8];
+
+    // Bitboard view of squares: one mask per color and piece type, plus occupancy.
+    // Transient so the JSON form of a game stays the squares grid.
+    private transient long[] pieceMasks = new long[Bitboards.PIECE_KINDS];
+    private transient long[] colorMasks = new long[2];
+    private transient long occupied;
+    // Zobrist key of the pieces on the board, see Zobrist
+    private transient long key;
+    // Square of each side's king, -1 when it has none
+    private transient int[] kingSquares = {-1, -1};
+    // The squares grid the masks were built from, Gson swaps in a new one when loading
+    private transient ChessPiece[][] indexed = squares;
+
+    // Undo stack for makeMove/unmakeMove: the from/to squares packed into one int,
+    // the piece that moved and whatever it captured
+    private transient int[] undoSquares = new int[16];
+    private transient ChessPiece[] undoMoved = new ChessPiece[16];
+    private transient ChessPiece[] undoCaptured = new ChessPiece[16];
+    private transient int undoCount;
+
     /**
      * Copy constructor: creates a deep copy of another ChessBoard
      */
@@ -22,15 +41,17 @@ public class ChessBoard {
     }
     // Private copy constructor (hidden)
     private ChessBoard(ChessBoard other) {
+        other.sync();
         this.squares = new ChessPiece[8][8];
         for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = other.squares[row][col];
-                if (piece != null) {
-                    this.squares[row][col] = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                }
-            }
+            this.squares[row] = other.squares[row].clone();
         }
+        this.pieceMasks = other.pieceMasks.clone();
+        this.colorMasks = other.colorMasks.clone();
+        this.occupied = other.occupied;
+        this.key = other.key;
+        this.kingSquares = other.kingSquares.clone();
+        this.indexed = this.squares;
     }
 
     //Static factory method for clarity
@@ -45,7 +66,105 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        sync();
+        int row = position.getRow()-1;
+        int col = position.getColumn()-1;
+        ChessPiece old = squares[row][col];
+        setSquare(row * 8 + col, old, piece);
+    }
+
+    /**
+     * Plays a move on the board so it can be taken back with {@link #unmakeMove()}.
+     * The move is not checked for legality.
+     *
+     * @param move the move to play, promotions replace the pawn on arrival
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(Move.of(move));
+    }
+
+    /**
+     * Plays a {@link Move}-encoded move, see {@link #makeMove(ChessMove)}
+     */
+    public void makeMove(int move) {
+        sync();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moved = squares[from >>> 3][from & 7];
+        if (moved == null) {
+            throw new IllegalArgumentException("No piece at " + ChessPosition.of(from));
+        }
+        ChessPiece captured = squares[to >>> 3][to & 7];
+        pushUndo(from, to, moved, captured);
+
+        ChessPiece arriving = moved;
+        if (Move.isPromotion(move)) {
+            arriving = ChessPiece.of(moved.getTeamColor(), Move.promotion(move));
+        }
+        setSquare(from, moved, null);
+        setSquare(to, captured, arriving);
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(ChessMove)} or {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        sync();
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        undoCount--;
+        int from = undoSquares[undoCount] & 63;
+        int to = undoSquares[undoCount] >>> 6;
+        ChessPiece moved = undoMoved[undoCount];
+        ChessPiece captured = undoCaptured[undoCount];
+        undoMoved[undoCount] = null;
+        undoCaptured[undoCount] = null;
+
+        setSquare(to, squares[to >>> 3][to & 7], captured);
+        setSquare(from, null, moved);
+    }
+
+    private void pushUndo(int from, int to, ChessPiece moved, ChessPiece captured) {
+        if (undoCount == undoSquares.length) {
+            undoSquares = Arrays.copyOf(undoSquares, undoCount * 2);
+            undoMoved = Arrays.copyOf(undoMoved, undoCount * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, undoCount * 2);
+        }
+        undoSquares[undoCount] = from | (to << 6);
+        undoMoved[undoCount] = moved;
+        undoCaptured[undoCount] = captured;
+        undoCount++;
+    }
+
+    // Swaps the piece on a square and keeps the masks in step, old must be what is there now
+    private void setSquare(int square, ChessPiece old, ChessPiece piece) {
+        squares[square >>> 3][square & 7] = piece;
+        long bit = Bitboards.bit(square);
+        if (old != null) {
+            int index = Bitboards.pieceIndex(old);
+            pieceMasks[index] &= ~bit;
+            colorMasks[old.getTeamColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+            key ^= Zobrist.piece(index, square);
+            if (old.getPieceType() == ChessPiece.PieceType.KING) {
+                trackKing(old.getTeamColor().ordinal(), pieceMasks[index]);
+            }
+        }
+        if (piece != null) {
+            int index = Bitboards.pieceIndex(piece);
+            pieceMasks[index] |= bit;
+            colorMasks[piece.getTeamColor().ordinal()] |= bit;
+            occupied |= bit;
+            key ^= Zobrist.piece(index, square);
+            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                kingSquares[piece.getTeamColor().ordinal()] = square;
+            }
+        }
+    }
+
+    private void trackKing(int color, long kings) {
+        kingSquares[color] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
     }
 
     /**
@@ -64,108 +183,232 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-         squares = new ChessPiece[8][8];
+         clear();
 
          //Adding Pawns
          for (int col = 1; col <= 8; col++){
-             addPiece(new ChessPosition(2,col), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-             addPiece(new ChessPosition(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+             addPiece(ChessPosition.of(2, col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+             addPiece(ChessPosition.of(7, col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
          }
 
         //Adding Rooks
-        addPiece(new ChessPosition(1,1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1,8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8,1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8,8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
 
         //Adding Knights
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
 
         //Adding Bishops
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
 
         //Adding Queens
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
 
         //Adding Kings
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
 
     }
     // Helper to find the king position on the board
     public ChessPosition findKing(ChessGame.TeamColor team) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = getPiece(pos);
-
-                if (piece != null &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING &&
-                        piece.getTeamColor() == team) {
-                    return pos;
-                }
-            }
+        int square = kingSquare(team);
+        if (square < 0) {
+            return null; // should never happen in a valid game
         }
-        return null; // should never happen in a valid game
+        return toPosition(square);
+    }
+
+    /**
+     * @return square index of the team's king, kept up to date as pieces move,
+     * or -1 if the team has no king on the board
+     */
+    public int kingSquare(ChessGame.TeamColor team) {
+        sync();
+        return kingSquares[team.ordinal()];
     }
 
     // Helper for checking if the square is being attacked for check
     public boolean isSquareAttacked(ChessPosition target, ChessGame.TeamColor byTeam) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                if (isSquareAttacking(pos, target, byTeam)){
-                    return true;
-                }
-            }
+        if (target == null) {
+            return false;
         }
-        return false;
+        sync();
+        return isSquareAttacked(Bitboards.square(target), byTeam, occupied);
     }
-    // Method added to break down the nesting depth
-    private boolean isSquareAttacking(ChessPosition position, ChessPosition target, ChessGame.TeamColor byTeam){
-        ChessPiece piece = getPiece(position);
-        if (piece != null && piece.getTeamColor() == byTeam) {
-            Collection<ChessMove> moves = piece.pieceMoves(this, position);
 
-            for (ChessMove move : moves) {
-                if (move.getEndPosition().equals(target)) {
-                    return true; // square is attacked
-                }
-            }
+    /**
+     * Looks outward from the square for an attacker: knight, pawn and king
+     * offsets first, then rook and bishop rays. Stops at the first hit.
+     *
+     * @param occupied the blockers to use for the rays, normally {@link #occupied()}
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byTeam, long occupied) {
+        sync();
+        long[] masks = pieceMasks;
+        int base = Bitboards.pieceIndex(byTeam, ChessPiece.PieceType.KING);
+        if ((Attacks.knight(square) & masks[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Attacks.pawn(byTeam.opposite(), square) & masks[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Attacks.king(square) & masks[base]) != 0) {
+            return true;
+        }
+        long queens = masks[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = masks[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        if (rooks != 0 && (Attacks.rook(square, occupied) & rooks) != 0) {
+            return true;
         }
-        return false;
+        long bishops = masks[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return bishops != 0 && (Attacks.bishop(square, occupied) & bishops) != 0;
+    }
+
+    /**
+     * @return mask of every piece of the team that attacks the square
+     */
+    public long attackersTo(int square, ChessGame.TeamColor team, long occupied) {
+        sync();
+        long[] masks = pieceMasks;
+        int base = Bitboards.pieceIndex(team, ChessPiece.PieceType.KING);
+        long queens = masks[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.knight(square) & masks[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.pawn(team.opposite(), square) & masks[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.king(square) & masks[base])
+                | (Attacks.rook(square, occupied) & (masks[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (Attacks.bishop(square, occupied) & (masks[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * Gets the pieces of a team that attack a square
+     *
+     * @param position the square being attacked
+     * @param team     the attacking team
+     * @return positions of the attacking pieces
+     */
+    public Collection<ChessPosition> attackersOf(ChessPosition position, ChessGame.TeamColor team) {
+        sync();
+        return toPositions(attackersTo(Bitboards.square(position), team, occupied));
     }
 
     // Get the positions of pieces on the board
     public Collection<ChessPosition> allTeamPosition(ChessGame.TeamColor color){
-        Collection<ChessPosition> positions = new ArrayList<>();
-        for (int row = 1; row <=8; row++){
-            for (int col = 1; col <=8; col++){
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = getPiece(pos);
-                if (piece != null && piece.getTeamColor() == color){
-                    positions.add(pos);
-                }
+        return toPositions(pieces(color));
+    }
 
-            }
+    /**
+     * @return mask of the squares holding the given kind of piece
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        sync();
+        return pieceMasks[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return mask of the squares holding any piece of the given team
+     */
+    public long pieces(ChessGame.TeamColor color) {
+        sync();
+        return colorMasks[color.ordinal()];
+    }
+
+    /**
+     * @return mask of every occupied square
+     */
+    public long occupied() {
+        sync();
+        return occupied;
+    }
+
+    /**
+     * Zobrist key of the pieces on the board, updated with every change. Equal
+     * boards always have equal keys; see {@link ChessGame#positionKey()} for a
+     * key that also covers whose turn it is.
+     */
+    public long positionKey() {
+        sync();
+        return key;
+    }
+
+    /**
+     * Gets the piece on a square index (see {@link Bitboards})
+     */
+    public ChessPiece pieceAt(int square) {
+        sync();
+        return squares[square >>> 3][square & 7];
+    }
+
+    private static Collection<ChessPosition> toPositions(long mask) {
+        Collection<ChessPosition> positions = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            positions.add(toPosition(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
         }
         return positions;
     }
 
+    private static ChessPosition toPosition(int square) {
+        return ChessPosition.of(square);
+    }
+
+    private void clear() {
+        squares = new ChessPiece[8][8];
+        Arrays.fill(pieceMasks, 0L);
+        Arrays.fill(colorMasks, 0L);
+        occupied = 0L;
+        key = 0L;
+        kingSquares[0] = -1;
+        kingSquares[1] = -1;
+        indexed = squares;
+        undoCount = 0;
+    }
+
+    // Rebuilds the masks when squares was replaced behind our back (deserialization)
+    private void sync() {
+        if (indexed != squares) {
+            reindex();
+        }
+    }
+
+    private void reindex() {
+        pieceMasks = new long[Bitboards.PIECE_KINDS];
+        colorMasks = new long[2];
+        occupied = 0L;
+        key = 0L;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece != null) {
+                    int square = row * 8 + col;
+                    int index = Bitboards.pieceIndex(piece);
+                    long bit = Bitboards.bit(square);
+                    pieceMasks[index] |= bit;
+                    colorMasks[piece.getTeamColor().ordinal()] |= bit;
+                    occupied |= bit;
+                    key ^= Zobrist.piece(index, square);
+                }
+            }
+        }
+        kingSquares = new int[2];
+        trackKing(0, pieceMasks[Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)]);
+        trackKing(1, pieceMasks[Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)]);
+        indexed = squares;
+        // undo records belong to the old grid
+        undoCount = 0;
+    }
+
     @Override
     public String toString() {
         StringBuilder grid = new StringBuilder(); // to help see the board
         for (int row = 8; row >= 1; row--) {
             grid.append(" ");
             for (int col = 1; col <= 8; col++) {
-                ChessPiece piece = getPiece(new ChessPosition(row, col));
+                ChessPiece piece = getPiece(ChessPosition.of(row, col));
                 if (piece == null) {
                     grid.append(". ");
                 } else {
@@ -199,11 +442,14 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        if (positionKey() != that.positionKey()) {
+            return false;
+        }
+        return Arrays.equals(pieceMasks, that.pieceMasks);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(positionKey());
     }
 }
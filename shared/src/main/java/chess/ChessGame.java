@@ -14,6 +14,15 @@ public class ChessGame {
     private ChessBoard board;
     private TeamColor currentTurn;
 
+    // Last status computed for each team, along with the board and position it was for
+    private transient GameStatus[] statuses = new GameStatus[2];
+    private transient long[] statusKeys = new long[2];
+    private transient ChessBoard statusBoard;
+    // Legal moves of the side to move, built on first use in each position
+    private transient LegalMoveCache legalMoves = new LegalMoveCache();
+    // Generator for the status check, which only asks whether one legal move exists
+    private transient MoveIterator statusMoves = new MoveIterator();
+
     public ChessGame() {
         this.board = new ChessBoard();
         this.board.resetBoard();
@@ -34,6 +43,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTurn = team;
+        legalMoves.invalidate();
     }
 
     /**
@@ -48,6 +58,16 @@ public class ChessGame {
         }
     }
 
+    /**
+     * Where a team stands in the current position
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -61,15 +81,14 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> candidateMoves = piece.pieceMoves(board, startPosition);
-        List<ChessMove> legalMoves = new ArrayList<>();
-
-        for(ChessMove move: candidateMoves){
-            if(!kingInCheck(move, piece.getTeamColor())){
-                legalMoves.add(move);
-            }
+        List<ChessMove> moves = new ArrayList<>();
+        int from = Bitboards.square(startPosition);
+        if (piece.getTeamColor() == currentTurn) {
+            legalMoves().addMoves(from, moves);
+        } else {
+            MoveGenerator.legalMoves(board, piece.getTeamColor(), Bitboards.bit(from), moves);
         }
-        return legalMoves;
+        return moves;
     }
 
     /**
@@ -89,8 +108,15 @@ public class ChessGame {
             throw new InvalidMoveException("It is not" + piece.getTeamColor() + "turn");
         }
         //check for illegal moves
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        if (legalMoves == null || !legalMoves.contains(move)){
+        ChessPosition end = move.getEndPosition();
+        if (end == null || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
+            throw new InvalidMoveException("Illegal Move");
+        }
+        // use the cached moves if something already built them, otherwise just check this one
+        int encoded = Move.of(move);
+        boolean legal = legalMoves.isFor(board, currentTurn)
+                ? legalMoves.contains(encoded) : MoveGenerator.isLegal(board, currentTurn, encoded);
+        if (!legal){
             throw new InvalidMoveException("Illegal Move");
         }
         //making a move
@@ -98,11 +124,13 @@ public class ChessGame {
         board.addPiece(move.getStartPosition(), null);
         //promotion move
         if (move.getPromotionPiece() != null){
-            board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
+            board.addPiece(move.getEndPosition(), ChessPiece.of(piece.getTeamColor(), move.getPromotionPiece()));
         }
 
         //switching the turns of the pieces.
         currentTurn = currentTurn.opposite();
+        statusBoard = null;
+        legalMoves.invalidate();
     }
 
     /**
@@ -112,8 +140,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = board.findKing(teamColor);
-        return board.isSquareAttacked(kingPos, teamColor.opposite());
+        return kingAttacked(teamColor);
     }
 
     /**
@@ -123,18 +150,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) { // check if the is in check
-            return false;
-        }
-
-        for (ChessPosition pos : board.allTeamPosition(teamColor)){
-            Collection<ChessMove> moves = validMoves(pos);
-            if (moves != null && !moves.isEmpty()){
-                return false;
-            }
-        }
-        return true;
-
+        return status(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -145,17 +161,42 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
+        return status(teamColor) == GameStatus.STALEMATE;
+    }
+
+    /**
+     * Works out check, checkmate and stalemate in one pass: check is tested
+     * once and move generation stops at the first legal move. The answer is
+     * kept until the position changes, so asking again is free.
+     *
+     * @param teamColor which team to get the status of
+     * @return the team's status in the current position
+     */
+    public GameStatus status(TeamColor teamColor) {
+        int team = teamColor.ordinal();
+        long key = board.positionKey();
+        if (statusBoard == board && statuses[team] != null && statusKeys[team] == key) {
+            return statuses[team];
+        }
+        if (statusBoard != board) {
+            statusBoard = board;
+            statuses[0] = null;
+            statuses[1] = null;
         }
-        //checking if there are any possible moves to make
-        for (ChessPosition pos : board.allTeamPosition(teamColor)){
-            Collection<ChessMove> moves = validMoves(pos);
-            if (moves != null && !moves.isEmpty()){
-                return false;
-            }
+
+        MoveIterator moves = statusMoves.reset(board, teamColor);
+        boolean inCheck = moves.inCheck();
+        boolean canMove = legalMoves.isFor(board, teamColor)
+                ? !legalMoves.isEmpty() : moves.hasNext();
+        GameStatus status;
+        if (inCheck) {
+            status = canMove ? GameStatus.CHECK : GameStatus.CHECKMATE;
+        } else {
+            status = canMove ? GameStatus.NORMAL : GameStatus.STALEMATE;
         }
-        return true;
+        statuses[team] = status;
+        statusKeys[team] = key;
+        return status;
     }
 
     /**
@@ -165,6 +206,8 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.statusBoard = null;
+        legalMoves.invalidate();
     }
 
     /**
@@ -176,22 +219,25 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * @return 64-bit Zobrist key of the position and the team to move
+     */
+    public long positionKey() {
+        return board.positionKey() ^ Zobrist.sideToMove(currentTurn);
+    }
 
 
-    private boolean kingInCheck(ChessMove move, TeamColor color){
-        ChessBoard clone = ChessBoard.copyOf(board);
-        ChessPiece movingPiece = clone.getPiece(move.getStartPosition());
-
-        clone.addPiece(move.getEndPosition(), movingPiece);
-        clone.addPiece(move.getStartPosition(), null);
 
-        if (move.getPromotionPiece() != null) {
-            clone.addPiece(move.getEndPosition(),
-                    new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece()));
+    private LegalMoveCache legalMoves() {
+        if (!legalMoves.isFor(board, currentTurn)) {
+            legalMoves.fill(board, currentTurn);
         }
+        return legalMoves;
+    }
 
-        ChessPosition kingPos = clone.findKing(color);
-        return clone.isSquareAttacked(kingPos, color.opposite());
+    private boolean kingAttacked(TeamColor color) {
+        int kingSquare = board.kingSquare(color);
+        return kingSquare >= 0 && board.isSquareAttacked(kingSquare, color.opposite(), board.occupied());
     }
 
     @Override
@@ -206,6 +252,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        return Long.hashCode(positionKey());
     }
 }
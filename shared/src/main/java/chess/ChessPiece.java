@@ -3,7 +3,6 @@ package chess;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -13,6 +12,17 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // One shared instance for each of the 12 color and type pairs
+    private static final ChessPiece[] PIECES = new ChessPiece[Bitboards.PIECE_KINDS];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -21,6 +31,13 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a piece, pieces are immutable so one per kind is enough
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboards.pieceIndex(pieceColor, type)];
+    }
+
 
     /**
      * The various different chess piece options
@@ -56,122 +73,39 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> moves = new ArrayList<>(); // list of all the possible moves
-        switch(type) {
-            case BISHOP -> {
-                int [][] bishopDirections = {
-                        {1,1},{1,-1},{-1,1},{-1,-1} // directions a bishop can move
-                };
-                slidingMove(board, myPosition,moves, bishopDirections);
-            }
-            case KING -> {
-                int [][] kingDirections = {
-                        {1,1},{1,0},{1,-1},{0,-1},{-1,-1},{-1,0},{-1,1},{0,1} // directions a king can move
-                };
-                slidingMove(board, myPosition, moves, kingDirections);
-            }
-            case QUEEN -> {
-                int [][] queenDirections = {
-                        {1,1},{1,0},{1,-1},{0,-1},{-1,-1},{-1,0},{-1,1},{0,1} // directions a queen can move
-                };
-                slidingMove(board, myPosition,moves, queenDirections);
-            }
-            case ROOK -> {
-                int [][] rookDirections = {
-                        {0,1},{1,0},{0,-1},{-1,0} // directions a rook can move
-                };
-                slidingMove(board, myPosition,moves, rookDirections);
-            }
-            case KNIGHT -> {
-                int [][] knightDirections = {
-                        {2,1},{2,-1},{1,-2},{-1,-2},{-2,-1},{-2,1},{-1,2},{1,2} // directions a knight can move
-                };
-                slidingMove(board, myPosition, moves, knightDirections);
-            }
-            case PAWN -> {
-                pawnMoves(board, myPosition, moves);
-            }
-
-        }
+        MoveList list = new MoveList(32);
+        pieceMoves(board, myPosition, list);
+        List<ChessMove> moves = new ArrayList<>(list.size()); // list of all the possible moves
+        list.addTo(moves);
         return moves;
     }
 
-    private void slidingMove (ChessBoard board, ChessPosition position, List<ChessMove> moves, int[][] directions) {
-        int startRow = position.getRow();
-        int startCol = position.getColumn();
-
-        for (int[] dir: directions) {  // iterating through all the directions
-            int row = startRow + dir[0];
-            int col = startCol + dir[1];
-
-            // while loop to make sure that I am staying within the bounds of the map
-            while (row >= 1 && row <= 8 && col <= 8 && col >= 1) {
-                ChessPosition newpos = new ChessPosition(row,col);
-                ChessPiece ocupied = board.getPiece(newpos); // checking if the space is occupied
-                if (ocupied == null) {
-                    moves.add(new ChessMove(position, newpos, null));
-                } else {
-                    if (ocupied.getTeamColor() != this.pieceColor) {
-                        moves.add(new ChessMove(position, newpos, null ));
-                    }
-                    break;
-                }
-            if (getPieceType() == PieceType.KNIGHT || getPieceType() == PieceType.KING ) {
-                break;
-            }
-            row += dir[0];
-            col += dir[1];
-
-            }
-        }
-    }
-
-    private void pawnMoves (ChessBoard board, ChessPosition position, List<ChessMove> moves) {
-        int direction = (this.pieceColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
-        int startRow = position.getRow();
-        int startCol = position.getColumn();
-        int nextRow = startRow + direction;
-
-        if (nextRow >= 1 && nextRow <=8) { // moves forward one space
-            ChessPosition forward = new ChessPosition(nextRow, startCol);
-            if (board.getPiece(forward) == null){
-                pawnMovesPro(position, forward, moves);
-
-                // giving the option to move two spaces forward at the beginning of the game
-                int startingRow = (this.pieceColor == ChessGame.TeamColor.WHITE) ? 2:7;
-                if (startRow == startingRow) {
-                    int doubleMove = startRow + 2 * direction;
-                    ChessPosition doubleForward = new ChessPosition(doubleMove, startCol);
-                    if (board.getPiece(doubleForward) == null) {
-                        moves.add(new ChessMove(position, doubleForward, null));
-                    }
-                }
-            }
+    /**
+     * Same moves as {@link #pieceMoves(ChessBoard, ChessPosition)}, handed to
+     * the sink as {@link Move} ints instead of being collected
+     *
+     * @return false if the sink stopped generation early
+     */
+    public boolean pieceMoves(ChessBoard board, ChessPosition myPosition, MoveSink sink) {
+        int square = Bitboards.square(myPosition);
+        long enemies = board.pieces(pieceColor.opposite());
+        long occupied = board.occupied();
+        boolean pawn = type == PieceType.PAWN;
+        long targets;
+        if (pawn) {
+            targets = Attacks.pawnPushes(pieceColor, square, occupied) | (Attacks.pawn(pieceColor, square) & enemies);
+        } else {
+            // table lookup for every other piece, minus squares our own pieces sit on
+            targets = Attacks.of(type, pieceColor, square, occupied) & ~board.pieces(pieceColor);
         }
-
-        int[] capturePiece = {startCol -1, startCol +1};
-        for (int col : capturePiece){
-            if (col >= 1 && col <= 8 && nextRow >= 1 && nextRow <= 8){
-                ChessPosition diaPos = new ChessPosition(nextRow, col);
-                ChessPiece ocupied = board.getPiece(diaPos);
-                if (ocupied != null && ocupied.getTeamColor() != this.pieceColor){
-                    pawnMovesPro(position, diaPos, moves);
-                }
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (MoveGenerator.emit(sink, square, target, pawn, pieceColor, enemies) < 0) {
+                return false;
             }
         }
-    }
-
-
-    private void pawnMovesPro (ChessPosition start, ChessPosition end, List<ChessMove> moves) {
-        int promoRow = (this.pieceColor == ChessGame.TeamColor.WHITE)? 8 : 1;
-        if(end.getRow() == promoRow){ // promotes pawn if it reaches the end
-            moves.add(new ChessMove(start, end, PieceType.QUEEN));
-            moves.add(new ChessMove(start, end, PieceType.ROOK));
-            moves.add(new ChessMove(start, end, PieceType.BISHOP));
-            moves.add(new ChessMove(start, end, PieceType.KNIGHT));
-        } else {
-            moves.add(new ChessMove(start, end, null));
-        }
+        return true;
     }
 
     @Override
@@ -184,6 +118,9 @@ public class ChessPiece {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -193,6 +130,6 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * pieceColor.ordinal() + type.ordinal();
     }
 }
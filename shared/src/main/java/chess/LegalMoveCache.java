@@ -0,0 +1,82 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The legal moves of one side in one position, grouped by the square they
+ * start from. Used by {@link ChessGame} so repeated validMoves calls and move
+ * validation on an unchanged position are lookups instead of regeneration.
+ * <p>
+ * The cache remembers the board and its position key, so it also notices a
+ * board edited directly through addPiece.
+ */
+final class LegalMoveCache {
+
+    private final MoveList moves = new MoveList();
+    // moves starting on a square sit at [first, first + count) in the list
+    private final int[] first = new int[Bitboards.SQUARES];
+    private final int[] count = new int[Bitboards.SQUARES];
+    // destination squares reachable from each square, for a quick membership test
+    private final long[] targets = new long[Bitboards.SQUARES];
+
+    private ChessBoard board;
+    private ChessGame.TeamColor side;
+    private long key;
+
+    boolean isFor(ChessBoard board, ChessGame.TeamColor side) {
+        return this.board == board && this.side == side && key == board.positionKey();
+    }
+
+    void fill(ChessBoard board, ChessGame.TeamColor side) {
+        moves.clear();
+        Arrays.fill(count, 0);
+        Arrays.fill(targets, 0L);
+        MoveGenerator.legalMoves(board, side, -1L, moves);
+
+        // the generator emits each piece's moves together, so one pass builds the index
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            if (count[from]++ == 0) {
+                first[from] = i;
+            }
+            targets[from] |= Bitboards.bit(Move.to(move));
+        }
+        this.board = board;
+        this.side = side;
+        this.key = board.positionKey();
+    }
+
+    void invalidate() {
+        board = null;
+    }
+
+    boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    /**
+     * @return true if the move (from, to and promotion) is one of the legal moves
+     */
+    boolean contains(int move) {
+        int from = Move.from(move);
+        if ((targets[from] & Bitboards.bit(Move.to(move))) == 0) {
+            return false;
+        }
+        int end = first[from] + count[from];
+        for (int i = first[from]; i < end; i++) {
+            if (Move.same(moves.get(i), move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addMoves(int from, Collection<ChessMove> out) {
+        int end = first[from] + count[from];
+        for (int i = first[from]; i < end; i++) {
+            out.add(Move.toChessMove(moves.get(i)));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+/**
+ * Packs a move into a single int so move generation and search don't
+ * allocate. {@link ChessMove} objects are only built when a move leaves the
+ * engine through the public API.
+ * <pre>
+ * bits 0-5   from square (see {@link Bitboards})
+ * bits 6-11  to square
+ * bits 12-14 promotion piece, 0 for none, otherwise PieceType ordinal + 1
+ * bit  15    capture flag, set by the generator when the to square is taken
+ * </pre>
+ * 0 is never a real move (from and to would be the same square) and is used
+ * as "no move".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+    public static final int CAPTURE = 1 << 15;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int IDENTITY_MASK = 0x7FFF;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promo = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promo << 12) | flags;
+    }
+
+    /**
+     * Encodes a move coming in through the public API, without flags
+     */
+    public static int of(ChessMove move) {
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promo = (move >>> 12) & 7;
+        return promo == 0 ? null : TYPES[promo - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> 12) & 7) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return true if both encode the same from, to and promotion, ignoring flags
+     */
+    public static boolean same(int a, int b) {
+        return ((a ^ b) & IDENTITY_MASK) == 0;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.of(from(move)), ChessPosition.of(to(move)), promotion(move));
+    }
+
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
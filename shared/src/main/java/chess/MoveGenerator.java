@@ -0,0 +1,259 @@
+package chess;
+
+import java.util.Collection;
+
+/**
+ * Generates only legal moves, without trying each move and testing for check.
+ * <p>
+ * Each call works out once which enemy pieces give check and which of our
+ * pieces are pinned to the king. A piece may then only move onto the check
+ * mask (capture the checker or block its ray) and, if pinned, only along the
+ * line through the king. King moves are tested against the enemy attacks with
+ * the king lifted off the board, and in double check only the king moves.
+ */
+public final class MoveGenerator {
+
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+    // returned by generate and emit when the sink asked to stop
+    private static final int STOPPED = -1;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the legal moves of the team's pieces standing on the from squares,
+     * encoded as {@link Move} ints
+     *
+     * @param fromMask squares to generate moves for, -1 for the whole team
+     * @return how many moves were added
+     */
+    public static int legalMoves(ChessBoard board, ChessGame.TeamColor team, long fromMask, MoveList moves) {
+        return generate(board, team, fromMask, -1L, moves, NO_LIMIT);
+    }
+
+    /**
+     * Hands the legal moves to the sink one by one, stopping as soon as it
+     * returns false
+     *
+     * @param fromMask squares to generate moves for, -1 for the whole team
+     * @return true if every move was handed over, false if the sink stopped early
+     */
+    public static boolean legalMoves(ChessBoard board, ChessGame.TeamColor team, long fromMask, MoveSink sink) {
+        return generate(board, team, fromMask, -1L, sink, NO_LIMIT) != STOPPED;
+    }
+
+    /**
+     * Like {@link #legalMoves(ChessBoard, ChessGame.TeamColor, long, MoveSink)} but
+     * only moves landing on the to squares, e.g. the enemy pieces for captures only
+     *
+     * @param toMask destination squares to keep, -1 for all
+     */
+    public static boolean legalMoves(ChessBoard board, ChessGame.TeamColor team, long fromMask, long toMask,
+                                     MoveSink sink) {
+        return generate(board, team, fromMask, toMask, sink, NO_LIMIT) != STOPPED;
+    }
+
+    /**
+     * Same as {@link #legalMoves(ChessBoard, ChessGame.TeamColor, long, MoveList)} but
+     * builds {@link ChessMove} objects, for handing moves out through the public API
+     */
+    public static int legalMoves(ChessBoard board, ChessGame.TeamColor team, long fromMask,
+                                 Collection<ChessMove> moves) {
+        MoveList list = new MoveList();
+        int count = generate(board, team, fromMask, -1L, list, NO_LIMIT);
+        list.addTo(moves);
+        return count;
+    }
+
+    /**
+     * @return how many legal moves the team has, without storing them
+     */
+    public static int countLegalMoves(ChessBoard board, ChessGame.TeamColor team) {
+        return generate(board, team, -1L, -1L, null, NO_LIMIT);
+    }
+
+    /**
+     * @return true if the team has at least one legal move, stops at the first one found
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor team) {
+        return hasLegalMove(board, team, -1L, -1L);
+    }
+
+    /**
+     * @param fromMask squares to look for moves from, -1 for the whole team
+     * @param toMask destination squares to keep, -1 for all
+     * @return true if a legal move goes from the from squares to the to squares
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor team, long fromMask, long toMask) {
+        return generate(board, team, fromMask, toMask, null, 1) > 0;
+    }
+
+    /**
+     * Checks one move without generating any others: the piece must belong to
+     * the team and reach the square (rays must be clear), promotions must be
+     * given exactly when a pawn reaches the last row, and the king must not be
+     * attacked once the move is played, which is tried in place and taken back.
+     *
+     * @param move a {@link Move}-encoded move, flags are ignored
+     * @return true if the move is legal for the team
+     */
+    public static boolean isLegal(ChessBoard board, ChessGame.TeamColor team, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.pieceAt(from);
+        if (piece == null || piece.getTeamColor() != team) {
+            return false;
+        }
+        long toBit = Bitboards.bit(to);
+        if ((board.pieces(team) & toBit) != 0) {
+            return false;
+        }
+
+        long occupied = board.occupied();
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        long reach;
+        if (pawn) {
+            reach = Attacks.pawnPushes(team, from, occupied)
+                    | (Attacks.pawn(team, from) & board.pieces(team.opposite()));
+        } else {
+            reach = Attacks.of(piece.getPieceType(), team, from, occupied);
+        }
+        if ((reach & toBit) == 0) {
+            return false;
+        }
+
+        boolean promotes = pawn && Bitboards.row(to) == (team == ChessGame.TeamColor.WHITE ? 8 : 1);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotes != (promotion != null)
+                || promotion == ChessPiece.PieceType.KING || promotion == ChessPiece.PieceType.PAWN) {
+            return false;
+        }
+
+        board.makeMove(move);
+        try {
+            int king = board.kingSquare(team);
+            return king < 0 || !board.isSquareAttacked(king, team.opposite(), board.occupied());
+        } finally {
+            board.unmakeMove();
+        }
+    }
+
+    // Counts the moves when sink is null, stops once limit moves are counted
+    private static int generate(ChessBoard board, ChessGame.TeamColor team, long fromMask, long toMask,
+                                MoveSink sink, int limit) {
+        ChessGame.TeamColor enemy = team.opposite();
+        long own = board.pieces(team);
+        long enemies = board.pieces(enemy);
+        long occupied = board.occupied();
+        int king = board.kingSquare(team);
+        int count = 0;
+
+        long checkMask = -1L;
+        long pinned = 0L;
+        if (king >= 0) {
+            long kingBit = Bitboards.bit(king);
+            if ((fromMask & kingBit) != 0) {
+                // the king cannot hide behind itself from a slider, so lift it off first
+                long targets = Attacks.king(king) & ~own & toMask;
+                long withoutKing = occupied ^ kingBit;
+                while (targets != 0 && count < limit) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (!board.isSquareAttacked(to, enemy, withoutKing)) {
+                        int added = emit(sink, king, to, false, team, enemies);
+                        if (added == STOPPED) {
+                            return STOPPED;
+                        }
+                        count += added;
+                    }
+                }
+            }
+
+            long checkers = board.attackersTo(king, enemy, occupied);
+            if (Long.bitCount(checkers) > 1 || count >= limit) {
+                return count; // double check, only the king can move
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(board, king, enemy, own, occupied);
+            fromMask &= ~kingBit;
+        }
+
+        long pieces = own & fromMask;
+        while (pieces != 0 && count < limit) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            ChessPiece piece = board.pieceAt(from);
+
+            long allowed = checkMask;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                allowed &= Attacks.line(king, from);
+            }
+
+            long targets;
+            boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+            if (pawn) {
+                targets = Attacks.pawnPushes(team, from, occupied)
+                        | (Attacks.pawn(team, from) & enemies);
+            } else {
+                targets = Attacks.of(piece.getPieceType(), team, from, occupied) & ~own;
+            }
+            targets &= allowed & toMask;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int added = emit(sink, from, to, pawn, team, enemies);
+                if (added == STOPPED) {
+                    return STOPPED;
+                }
+                count += added;
+            }
+        }
+        return count;
+    }
+
+    // Our pieces that are the only thing between our king and an enemy rook, bishop or queen
+    private static long pinnedPieces(ChessBoard board, int king, ChessGame.TeamColor enemy, long own,
+                                     long occupied) {
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rook(king, 0L) & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, 0L) & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Hands one move to the sink, or all four promotions for a pawn reaching
+     * the last row. Also used by {@link ChessPiece#pieceMoves(ChessBoard, ChessPosition, MoveSink)}.
+     *
+     * @param sink where the moves go, null to only count them
+     * @return how many moves were handed over, or STOPPED if the sink asked to stop
+     */
+    static int emit(MoveSink sink, int from, int to, boolean pawn, ChessGame.TeamColor team, long enemies) {
+        int promoRow = team == ChessGame.TeamColor.WHITE ? 8 : 1;
+        boolean promotion = pawn && Bitboards.row(to) == promoRow;
+        if (sink == null) {
+            return promotion ? 4 : 1;
+        }
+        int flags = (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+        if (promotion) {
+            if (!sink.accept(Move.encode(from, to, ChessPiece.PieceType.QUEEN, flags))
+                    || !sink.accept(Move.encode(from, to, ChessPiece.PieceType.ROOK, flags))
+                    || !sink.accept(Move.encode(from, to, ChessPiece.PieceType.BISHOP, flags))
+                    || !sink.accept(Move.encode(from, to, ChessPiece.PieceType.KNIGHT, flags))) {
+                return STOPPED;
+            }
+            return 4;
+        }
+        return sink.accept(Move.encode(from, to) | flags) ? 1 : STOPPED;
+    }
+}
@@ -0,0 +1,179 @@
+package chess;
+
+/**
+ * Hands out a side's legal moves one at a time, generating them in stages
+ * only when the previous stage runs out: all check evasions when in check,
+ * otherwise captures (most valuable victim first), then quiet promotions,
+ * then the remaining quiet moves. A caller that stops after the first few
+ * moves never pays for the rest, and {@link #hasNext()} answers without
+ * generating a stage at all.
+ * <p>
+ * Meant to be kept and reused with {@link #reset(ChessBoard, ChessGame.TeamColor)}.
+ * The board must not change between reset and the last call to {@link #next()}.
+ */
+public final class MoveIterator {
+
+    // victim values by PieceType ordinal, a king is never captured
+    private static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+    private static final long ROW_1 = 0xFFL;
+    private static final long ROW_8 = 0xFF00000000000000L;
+
+    private enum Stage {
+        EVASIONS,
+        CAPTURES,
+        PROMOTIONS,
+        QUIETS,
+        DONE
+    }
+
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[64];
+    private int index;
+    private boolean sorted;
+    private Stage pending = Stage.DONE;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor team;
+    private boolean inCheck;
+
+    /**
+     * Starts over on a new position
+     *
+     * @return this iterator
+     */
+    public MoveIterator reset(ChessBoard board, ChessGame.TeamColor team) {
+        this.board = board;
+        this.team = team;
+        int king = board.kingSquare(team);
+        inCheck = king >= 0 && board.isSquareAttacked(king, team.opposite(), board.occupied());
+        pending = inCheck ? Stage.EVASIONS : Stage.CAPTURES;
+        moves.clear();
+        index = 0;
+        return this;
+    }
+
+    /**
+     * @return the next legal move, or {@link Move#NONE} once there are no more
+     */
+    public int next() {
+        while (index >= moves.size()) {
+            if (pending == Stage.DONE) {
+                return Move.NONE;
+            }
+            load(pending);
+        }
+        return sorted ? pickBest() : moves.get(index++);
+    }
+
+    /**
+     * Tells whether {@link #next()} has another move without loading the next
+     * stage: the moves still to come are only searched for one legal move.
+     *
+     * @return true if there is at least one more move
+     */
+    public boolean hasNext() {
+        if (index < moves.size()) {
+            return true;
+        }
+        if (pending == Stage.EVASIONS || pending == Stage.CAPTURES) {
+            return MoveGenerator.hasLegalMove(board, team); // nothing loaded yet, every move is still to come
+        }
+        for (Stage stage = pending; stage != Stage.DONE; stage = after(stage)) {
+            if (hasMove(stage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the side was in check when the iterator was reset
+     */
+    public boolean inCheck() {
+        return inCheck;
+    }
+
+    private void load(Stage stage) {
+        moves.clear();
+        index = 0;
+        long own = board.pieces(team);
+        long empty = ~board.occupied();
+        long pawns = board.pieces(team, ChessPiece.PieceType.PAWN);
+        long lastRow = team == ChessGame.TeamColor.WHITE ? ROW_8 : ROW_1;
+        switch (stage) {
+            case EVASIONS -> MoveGenerator.legalMoves(board, team, -1L, moves);
+            case CAPTURES -> MoveGenerator.legalMoves(board, team, -1L, board.pieces(team.opposite()), moves);
+            case PROMOTIONS -> MoveGenerator.legalMoves(board, team, pawns, empty & lastRow, moves);
+            case QUIETS -> {
+                MoveGenerator.legalMoves(board, team, own & ~pawns, empty, moves);
+                MoveGenerator.legalMoves(board, team, pawns, empty & ~lastRow, moves);
+            }
+            default -> { }
+        }
+        pending = after(stage);
+
+        // only captures and evasions get ordered, the other stages come out as generated
+        sorted = stage == Stage.CAPTURES || stage == Stage.EVASIONS;
+        if (sorted) {
+            if (scores.length < moves.size()) {
+                scores = new int[moves.size() * 2];
+            }
+            for (int i = 0; i < moves.size(); i++) {
+                scores[i] = score(moves.get(i));
+            }
+        }
+    }
+
+    // Same squares as load, but stops at the first legal move
+    private boolean hasMove(Stage stage) {
+        long empty = ~board.occupied();
+        long pawns = board.pieces(team, ChessPiece.PieceType.PAWN);
+        long lastRow = team == ChessGame.TeamColor.WHITE ? ROW_8 : ROW_1;
+        return switch (stage) {
+            case EVASIONS -> MoveGenerator.hasLegalMove(board, team);
+            case CAPTURES -> MoveGenerator.hasLegalMove(board, team, -1L, board.pieces(team.opposite()));
+            case PROMOTIONS -> MoveGenerator.hasLegalMove(board, team, pawns, empty & lastRow);
+            case QUIETS -> MoveGenerator.hasLegalMove(board, team, board.pieces(team) & ~pawns, empty)
+                    || MoveGenerator.hasLegalMove(board, team, pawns, empty & ~lastRow);
+            case DONE -> false;
+        };
+    }
+
+    private static Stage after(Stage stage) {
+        return switch (stage) {
+            case CAPTURES -> Stage.PROMOTIONS;
+            case PROMOTIONS -> Stage.QUIETS;
+            default -> Stage.DONE; // evasions are every move at once
+        };
+    }
+
+    private int score(int move) {
+        int score = 0;
+        if (Move.isCapture(move)) {
+            score += VALUES[board.pieceAt(Move.to(move)).getPieceType().ordinal()];
+        }
+        if (Move.isPromotion(move)) {
+            score += VALUES[Move.promotion(move).ordinal()];
+        }
+        return score;
+    }
+
+    // Selection sort one step at a time, so moves never handed out are never sorted
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            // index is used up after this, so only the displaced move needs its score moved
+            moves.set(best, moves.get(index));
+            scores[best] = scores[index];
+            moves.set(index, move);
+        }
+        index++;
+        return move;
+    }
+}
@@ -0,0 +1,16 @@
+package chess;
+
+/**
+ * Receives generated moves one at a time, encoded as {@link Move} ints, so a
+ * caller can collect them into a reused buffer or look at each one as it comes
+ * without anything being allocated.
+ */
+@FunctionalInterface
+public interface MoveSink {
+
+    /**
+     * @param move the next generated move
+     * @return true to keep generating, false to stop here
+     */
+    boolean accept(int move);
+}
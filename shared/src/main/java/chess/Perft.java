@@ -0,0 +1,185 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * Comparing the counts with known values checks move generation, and timing
+ * them measures its speed.
+ * <p>
+ * Works on its own copy of the board with makeMove/unmakeMove and one reused
+ * {@link MoveList} per ply, so counting does not allocate. An instance is not
+ * thread safe; {@link #parallel(int)} splits the root moves over a fork-join
+ * pool with one copy per task.
+ * <p>
+ * Run from the command line as {@code Perft <depth> [fen]} to print a divide
+ * by root move, the total and the speed.
+ */
+public class Perft {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor sideToMove;
+    private final MoveList[] lists = new MoveList[MAX_DEPTH];
+
+    public Perft(ChessGame game) {
+        this(game.getBoard(), game.getTeamTurn());
+    }
+
+    public Perft(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        this.board = ChessBoard.copyOf(board);
+        this.sideToMove = sideToMove;
+        for (int ply = 0; ply < MAX_DEPTH; ply++) {
+            lists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * @return number of leaf positions reached after depth moves
+     */
+    public long count(int depth) {
+        checkDepth(depth);
+        return perft(depth, 0, sideToMove);
+    }
+
+    /**
+     * @return leaf counts below each root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        checkDepth(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        if (depth == 0) {
+            return counts;
+        }
+        MoveList moves = lists[0];
+        moves.clear();
+        MoveGenerator.legalMoves(board, sideToMove, -1L, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            counts.put(Move.toChessMove(move), perft(depth - 1, 1, sideToMove.opposite()));
+            board.unmakeMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Same count as {@link #count(int)}, with each root move searched as its
+     * own task on the common fork-join pool
+     */
+    public long parallel(int depth) {
+        return parallel(depth, ForkJoinPool.commonPool());
+    }
+
+    public long parallel(int depth, ForkJoinPool pool) {
+        checkDepth(depth);
+        if (depth <= 1) {
+            return count(depth);
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, sideToMove, -1L, moves);
+        return pool.invoke(new RootTask(board, sideToMove, moves, depth));
+    }
+
+    private long perft(int depth, int ply, ChessGame.TeamColor side) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            return MoveGenerator.countLegalMoves(board, side); // every legal move is a leaf
+        }
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.legalMoves(board, side, -1L, moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(depth - 1, ply + 1, side.opposite());
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0 || depth >= MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 0 and " + (MAX_DEPTH - 1));
+        }
+    }
+
+    // Forks one subtask per root move, each on its own board copy; tasks are never serialized
+    @SuppressWarnings("serial")
+    private static class RootTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final MoveList moves;
+        private final int depth;
+
+        RootTask(ChessBoard board, ChessGame.TeamColor side, MoveList moves, int depth) {
+            this.board = board;
+            this.side = side;
+            this.moves = moves;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            List<RecursiveTask<Long>> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                RecursiveTask<Long> task = new RecursiveTask<>() {
+                    @Override
+                    protected Long compute() {
+                        ChessBoard copy = ChessBoard.copyOf(board);
+                        copy.makeMove(move);
+                        return new Perft(copy, side.opposite()).count(depth - 1);
+                    }
+                };
+                task.fork();
+                tasks.add(task);
+            }
+            long nodes = 0;
+            for (RecursiveTask<Long> task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: Perft <depth> [fen]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : Fen.START;
+        Perft perft = new Perft(Fen.parse(fen));
+
+        long start = System.nanoTime();
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : perft.divide(depth).entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        report("divide", total, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        total = perft.count(depth);
+        report("serial", total, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        total = perft.parallel(depth);
+        report("parallel (" + ForkJoinPool.commonPool().getParallelism() + " workers)", total,
+                System.nanoTime() - start);
+    }
+
+    private static void report(String label, long nodes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%s: %d nodes in %.3f s, %.0f nodes/sec%n", label, nodes, seconds, nodes / seconds);
+    }
+}
@@ -0,0 +1,137 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A computer player: picks its moves against a clock on a thread of its own,
+ * so asking for a move never blocks the caller, and thinks on the opponent's
+ * time. Once its move is played, {@link #ponder} searches the position after
+ * the reply it expects (the second move of its principal variation). If the
+ * opponent then plays that reply, the next {@link #move} keeps the running
+ * search and only starts its clock, so most of the answer is already there;
+ * any other reply stops it, and the new search still finds the pondered
+ * lines in the shared transposition table.
+ * <p>
+ * Calls are expected in turn: a move, then maybe a ponder once it has been
+ * played, then the next move. A move asked for while the last search still
+ * runs or waits replaces it, and that search is cancelled.
+ */
+public class EnginePlayer implements AutoCloseable {
+
+    // replaced with a fresh one sharing the table whenever a search is cancelled
+    private Search search;
+    private final int threads;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("engine-player").factory());
+
+    // the running ponder search and the position it is on, null when not pondering
+    private CompletableFuture<SearchResult> pondering;
+    private long ponderKey;
+    private CompletableFuture<SearchResult> last = CompletableFuture.completedFuture(null);
+    private boolean closed;
+
+    public EnginePlayer() {
+        this(new Search(), 1);
+    }
+
+    /**
+     * @param search  search to use, kept for every move so its table carries over
+     * @param threads threads to search with
+     */
+    public EnginePlayer(Search search, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.search = search;
+        this.threads = threads;
+    }
+
+    /**
+     * Starts thinking about the game's position for its side to move. The
+     * game is copied, so it may change while the search runs.
+     *
+     * @param remainingMillis time left on the player's clock
+     * @param incrementMillis time added to it after each move
+     * @return the search result, completed on the player's thread
+     * @throws IllegalStateException if the player is closed
+     */
+    public synchronized CompletableFuture<SearchResult> move(ChessGame game, long remainingMillis,
+                                                             long incrementMillis) {
+        if (closed) {
+            throw new IllegalStateException("Player is closed");
+        }
+        SearchLimits limits = TimeManager.limits(remainingMillis, incrementMillis).withThreads(threads);
+        CompletableFuture<SearchResult> previous = last;
+        CompletableFuture<SearchResult> ponder = pondering;
+        pondering = null;
+        if (ponder != null && ponderKey == game.positionKey()) {
+            search.ponderHit(limits);
+            return ponder;
+        }
+        if (!previous.isDone()) {
+            // a missed ponder or a move nobody waits for; cancelled even if it has not started yet
+            search.cancel();
+            search = new Search(search.transpositionTable(), search.pruning());
+        }
+        Search current = search;
+        ChessGame copy = copyOf(game);
+        // one search at a time, so this waits for a cancelled one to wind down
+        last = previous.handle((result, failure) -> null)
+                .thenApplyAsync(ignored -> current.search(copy, limits), executor);
+        return last;
+    }
+
+    /**
+     * Starts searching, on the opponent's time, the position after the reply
+     * the player's last search expects. Does nothing if that search had no
+     * reply in its principal variation or has not finished yet.
+     *
+     * @param game the game after the player's move was played
+     * @param ours the result the move came from
+     */
+    public synchronized void ponder(ChessGame game, SearchResult ours) {
+        if (closed || pondering != null || !last.isDone() || ours.pv().size() < 2) {
+            return;
+        }
+        ChessMove reply = ours.pv().get(1);
+        ChessGame expected = copyOf(game);
+        try {
+            expected.makeMove(reply);
+        } catch (InvalidMoveException e) {
+            return; // the game went another way than the search thought
+        }
+        ponderKey = expected.positionKey();
+        pondering = search.ponder(expected, threads, executor);
+        last = pondering;
+    }
+
+    /**
+     * Cancels any search, running or waiting, and stops the player's thread
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        pondering = null;
+        search.cancel();
+        executor.shutdown();
+    }
+
+    // the running ponder search, null when not pondering, so tests can tell a ponder hit from a new search
+    synchronized CompletableFuture<SearchResult> ponderSearch() {
+        return pondering;
+    }
+
+    private static ChessGame copyOf(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(ChessBoard.copyOf(game.getBoard()));
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+}
@@ -0,0 +1,261 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Static evaluation in centipawns, positive when the side to move is better.
+ * <p>
+ * Material and piece-square scores are kept as running middlegame and endgame
+ * totals (white minus black), along with the game phase from the pieces left.
+ * Moves go through {@link #makeMove(int)} and {@link #unmakeMove()}, which
+ * adjust the totals from the moved, captured and promoted piece and save the
+ * old ones for the way back, so the board is only scanned by {@link #reset}.
+ * A leaf blends the two totals by phase and adds a pawn structure term worked
+ * out from the pawn masks.
+ */
+public final class Evaluation {
+
+    // by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 950, 340, 300, 540, 120};
+    // what each piece adds to the phase, all of them together make MAX_PHASE
+    private static final int[] PHASE = {0, 4, 1, 1, 2, 0};
+    private static final int MAX_PHASE = 24;
+
+    private static final int DOUBLED_PAWN = 12;
+    private static final int ISOLATED_PAWN = 10;
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    // Piece-square tables from white's side, written with row 8 at the top
+    private static final int[] PAWN_MG = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] PAWN_EG = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+    private static final int[] KING_MG = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+    private static final int[] KING_EG = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    // material plus square for each piece index and square, negative for black
+    private static final int[][] MIDDLEGAME = new int[Bitboards.PIECE_KINDS][Bitboards.SQUARES];
+    private static final int[][] ENDGAME = new int[Bitboards.PIECE_KINDS][Bitboards.SQUARES];
+
+    static {
+        int[][] middlegame = {KING_MG, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MG};
+        int[][] endgame = {KING_EG, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_EG};
+        for (ChessPiece.PieceType type : TYPES) {
+            int t = type.ordinal();
+            int white = Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, type);
+            int black = Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, type);
+            for (int square = 0; square < Bitboards.SQUARES; square++) {
+                // the tables start at row 8, so white flips the row and black reads them as is
+                MIDDLEGAME[white][square] = VALUES[t] + middlegame[t][square ^ 56];
+                ENDGAME[white][square] = ENDGAME_VALUES[t] + endgame[t][square ^ 56];
+                MIDDLEGAME[black][square] = -(VALUES[t] + middlegame[t][square]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[t] + endgame[t][square]);
+            }
+        }
+    }
+
+    private ChessBoard board;
+    private int middlegame;
+    private int endgame;
+    private int phase;
+
+    // totals before each move still on the board, for unmakeMove
+    private int[] savedMiddlegame = new int[64];
+    private int[] savedEndgame = new int[64];
+    private int[] savedPhase = new int[64];
+    private int saved;
+
+    /**
+     * Works the totals out from scratch for the board, which later moves must
+     * go through this evaluation to keep them right
+     *
+     * @return this evaluation
+     */
+    public Evaluation reset(ChessBoard board) {
+        this.board = board;
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        saved = 0;
+        for (int index = 0; index < Bitboards.PIECE_KINDS; index++) {
+            long pieces = board.pieces(color(index), type(index));
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                middlegame += MIDDLEGAME[index][square];
+                endgame += ENDGAME[index][square];
+                phase += PHASE[index % 6];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Plays the move on the board and updates the totals
+     */
+    public void makeMove(int move) {
+        if (saved == savedPhase.length) {
+            savedMiddlegame = Arrays.copyOf(savedMiddlegame, saved * 2);
+            savedEndgame = Arrays.copyOf(savedEndgame, saved * 2);
+            savedPhase = Arrays.copyOf(savedPhase, saved * 2);
+        }
+        savedMiddlegame[saved] = middlegame;
+        savedEndgame[saved] = endgame;
+        savedPhase[saved] = phase;
+        saved++;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moved = board.pieceAt(from);
+        int movedIndex = Bitboards.pieceIndex(moved);
+        middlegame -= MIDDLEGAME[movedIndex][from];
+        endgame -= ENDGAME[movedIndex][from];
+
+        ChessPiece captured = board.pieceAt(to);
+        if (captured != null) {
+            int capturedIndex = Bitboards.pieceIndex(captured);
+            middlegame -= MIDDLEGAME[capturedIndex][to];
+            endgame -= ENDGAME[capturedIndex][to];
+            phase -= PHASE[capturedIndex % 6];
+        }
+
+        int arriving = movedIndex;
+        if (Move.isPromotion(move)) {
+            arriving = Bitboards.pieceIndex(moved.getTeamColor(), Move.promotion(move));
+            phase += PHASE[arriving % 6];
+        }
+        middlegame += MIDDLEGAME[arriving][to];
+        endgame += ENDGAME[arriving][to];
+        board.makeMove(move);
+    }
+
+    /**
+     * Takes back the last move made through {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        board.unmakeMove();
+        saved--;
+        middlegame = savedMiddlegame[saved];
+        endgame = savedEndgame[saved];
+        phase = savedPhase[saved];
+    }
+
+    /**
+     * @return the score of the current position for the side
+     */
+    public int evaluate(ChessGame.TeamColor side) {
+        int weight = Math.min(phase, MAX_PHASE);
+        int score = (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+        score += pawnStructure(ChessGame.TeamColor.WHITE) - pawnStructure(ChessGame.TeamColor.BLACK);
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return 0 for a bare endgame up to 24 with every piece on the board
+     */
+    public int phase() {
+        return Math.min(phase, MAX_PHASE);
+    }
+
+    // Penalties for doubled and isolated pawns, as a negative number
+    private int pawnStructure(ChessGame.TeamColor color) {
+        long pawns = board.pieces(color, ChessPiece.PieceType.PAWN);
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            long onFile = pawns & (FILE_A << file);
+            if (onFile == 0) {
+                continue;
+            }
+            int count = Long.bitCount(onFile);
+            score -= (count - 1) * DOUBLED_PAWN;
+            long left = file > 0 ? FILE_A << (file - 1) : 0;
+            long right = file < 7 ? FILE_A << (file + 1) : 0;
+            if ((pawns & (left | right)) == 0) {
+                score -= count * ISOLATED_PAWN;
+            }
+        }
+        return score;
+    }
+
+    private static ChessGame.TeamColor color(int pieceIndex) {
+        return pieceIndex < 6 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    private static ChessPiece.PieceType type(int pieceIndex) {
+        return TYPES[pieceIndex % 6];
+    }
+}
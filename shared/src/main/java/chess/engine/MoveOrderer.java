@@ -0,0 +1,292 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order a {@link Search} tries moves in, since alpha-beta cuts
+ * off the most when the best move comes first. Each node gets a
+ * {@link Picker} that hands moves out in stages, generating each stage only
+ * when the one before runs out:
+ * <ol>
+ * <li>the move stored in the transposition table</li>
+ * <li>captures, most valuable victim first and then least valuable attacker</li>
+ * <li>the two killer moves of the ply, quiet moves that caused a cutoff in a sibling</li>
+ * <li>the remaining quiet moves, promotions first and then by history score</li>
+ * <li>captures that lose material by {@link StaticExchange}, held back from the capture stage</li>
+ * </ol>
+ * Quiescence search uses a picker that only hands out captures and
+ * promotions and drops the losing ones altogether.
+ * The history table counts, per side and from/to square pair, how often a
+ * quiet move caused a cutoff, weighted by depth. Everything works on
+ * {@link Move} ints in arrays sized once per search thread.
+ */
+final class MoveOrderer {
+
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH + 1;
+    // history scores are halved once any reaches this, so they stay below the promotion bonus
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int PROMOTION_BONUS = 1 << 21;
+
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][Bitboards.SQUARES * Bitboards.SQUARES];
+    private final Picker[] pickers = new Picker[MAX_PLY];
+
+    MoveOrderer() {
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new Picker();
+        }
+    }
+
+    /**
+     * Forgets the killers and ages the history ahead of a new search
+     */
+    void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 2;
+            }
+        }
+    }
+
+    /**
+     * @return the ply's picker, set up to hand out the side's moves
+     */
+    Picker picker(int ply, ChessBoard board, ChessGame.TeamColor side, int ttMove) {
+        return pickers[ply].reset(board, side, ttMove, killers[ply], history[side.ordinal()], false);
+    }
+
+    /**
+     * @return the ply's picker, set up to hand out only the side's captures and
+     * promotions that do not lose material
+     */
+    Picker noisyPicker(int ply, ChessBoard board, ChessGame.TeamColor side) {
+        return pickers[ply].reset(board, side, Move.NONE, killers[ply], history[side.ordinal()], true);
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff
+     */
+    void cutoff(int ply, ChessGame.TeamColor side, int move, int depth) {
+        int[] plyKillers = killers[ply];
+        if (!Move.same(plyKillers[0], move)) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] sideHistory = history[side.ordinal()];
+        int index = butterfly(move);
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * @return true for moves that neither capture nor promote
+     */
+    static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && !Move.isPromotion(move);
+    }
+
+    private static int butterfly(int move) {
+        return Move.from(move) * Bitboards.SQUARES + Move.to(move);
+    }
+
+    /**
+     * Hands out one node's moves in order, see {@link MoveOrderer}
+     */
+    static final class Picker {
+
+        private static final int TT_MOVE = 0;
+        private static final int GENERATE_CAPTURES = 1;
+        private static final int CAPTURES = 2;
+        private static final int KILLERS = 3;
+        private static final int QUIETS = 4;
+        private static final int BAD_CAPTURES = 5;
+        private static final int DONE = 6;
+
+        private static final long ROW_1 = 0xFFL;
+        private static final long ROW_8 = 0xFF00000000000000L;
+
+        private final MoveList moves = new MoveList();
+        private int[] scores = new int[64];
+        private int index;
+        private int stage;
+        private int killerIndex;
+        // killers actually handed out, so the quiet stage can skip them
+        private final int[] usedKillers = new int[2];
+        private final MoveList badCaptures = new MoveList();
+        private int badIndex;
+        private boolean noisyOnly;
+
+        private ChessBoard board;
+        private ChessGame.TeamColor side;
+        private int ttMove;
+        private int[] killers;
+        private int[] history;
+        private int picked;
+
+        private Picker reset(ChessBoard board, ChessGame.TeamColor side, int ttMove, int[] killers, int[] history,
+                             boolean noisyOnly) {
+            this.board = board;
+            this.noisyOnly = noisyOnly;
+            this.side = side;
+            this.killers = killers;
+            this.history = history;
+            // the table can hold a move from a colliding position, so it has to be checked
+            this.ttMove = ttMove != Move.NONE && MoveGenerator.isLegal(board, side, ttMove) ? ttMove : Move.NONE;
+            stage = TT_MOVE;
+            moves.clear();
+            index = 0;
+            killerIndex = 0;
+            usedKillers[0] = Move.NONE;
+            usedKillers[1] = Move.NONE;
+            badCaptures.clear();
+            badIndex = 0;
+            picked = 0;
+            return this;
+        }
+
+        /**
+         * @return the next move, or {@link Move#NONE} once there are no more
+         */
+        int next() {
+            int move = nextMove();
+            if (move != Move.NONE) {
+                picked++;
+            }
+            return move;
+        }
+
+        /**
+         * @return how many moves have been handed out so far
+         */
+        int picked() {
+            return picked;
+        }
+
+        private int nextMove() {
+            while (true) {
+                switch (stage) {
+                    case TT_MOVE -> {
+                        stage = GENERATE_CAPTURES;
+                        if (ttMove != Move.NONE) {
+                            return ttMove;
+                        }
+                    }
+                    case GENERATE_CAPTURES -> {
+                        generate(-1L, board.pieces(side.opposite()), false);
+                        if (noisyOnly) {
+                            long lastRow = side == ChessGame.TeamColor.WHITE ? ROW_8 : ROW_1;
+                            generate(board.pieces(side, ChessPiece.PieceType.PAWN), ~board.occupied() & lastRow, true);
+                        }
+                        stage = CAPTURES;
+                    }
+                    case CAPTURES -> {
+                        int move = pickBest();
+                        if (move == Move.NONE) {
+                            stage = noisyOnly ? DONE : KILLERS;
+                        } else if (StaticExchange.atLeast(board, move, 0)) {
+                            return move;
+                        } else if (!noisyOnly) {
+                            badCaptures.add(move);
+                        }
+                    }
+                    case KILLERS -> {
+                        while (killerIndex < killers.length) {
+                            int killer = killers[killerIndex++];
+                            if (killer != Move.NONE && !Move.same(killer, ttMove)
+                                    && board.pieceAt(Move.to(killer)) == null
+                                    && MoveGenerator.isLegal(board, side, killer)) {
+                                usedKillers[killerIndex - 1] = killer;
+                                return killer;
+                            }
+                        }
+                        stage = QUIETS;
+                        generate(-1L, ~board.occupied(), false);
+                    }
+                    case QUIETS -> {
+                        int move = pickBest();
+                        if (move != Move.NONE) {
+                            return move;
+                        }
+                        stage = BAD_CAPTURES;
+                    }
+                    case BAD_CAPTURES -> {
+                        if (badIndex < badCaptures.size()) {
+                            return badCaptures.get(badIndex++);
+                        }
+                        stage = DONE;
+                    }
+                    default -> {
+                        return Move.NONE;
+                    }
+                }
+            }
+        }
+
+        // Fills the list with the legal moves between the masks, scored for their stage
+        private void generate(long fromMask, long targets, boolean append) {
+            if (!append) {
+                moves.clear();
+                index = 0;
+            }
+            int first = moves.size();
+            MoveGenerator.legalMoves(board, side, fromMask, targets, moves);
+            if (scores.length < moves.size()) {
+                scores = Arrays.copyOf(scores, moves.size() * 2);
+            }
+            for (int i = first; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int score;
+                if (Move.isCapture(move)) {
+                    int victim = Evaluation.VALUES[board.pieceAt(Move.to(move)).getPieceType().ordinal()];
+                    int attacker = Evaluation.VALUES[board.pieceAt(Move.from(move)).getPieceType().ordinal()];
+                    score = victim * 16 - attacker / 16;
+                } else {
+                    score = history[butterfly(move)];
+                }
+                if (Move.isPromotion(move)) {
+                    score += PROMOTION_BONUS + Evaluation.VALUES[Move.promotion(move).ordinal()];
+                }
+                scores[i] = score;
+            }
+        }
+
+        // Selection sort one step at a time, skipping moves already handed out in an earlier stage
+        private int pickBest() {
+            while (index < moves.size()) {
+                int best = index;
+                for (int i = index + 1; i < moves.size(); i++) {
+                    if (scores[i] > scores[best]) {
+                        best = i;
+                    }
+                }
+                int move = moves.get(best);
+                if (best != index) {
+                    moves.set(best, moves.get(index));
+                    scores[best] = scores[index];
+                    moves.set(index, move);
+                }
+                index++;
+                if (!Move.same(move, ttMove) && !Move.same(move, usedKillers[0]) && !Move.same(move, usedKillers[1])) {
+                    return move;
+                }
+            }
+            return Move.NONE;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package chess.engine;
+
+/**
+ * Which of the selective search techniques a {@link Search} uses. Each one
+ * skips or shortens lines that are very unlikely to matter, trading a little
+ * accuracy for depth; they can be switched off one by one to measure that.
+ *
+ * @param nullMove           let the opponent move twice, and if we are still above beta, cut
+ * @param lateMoveReductions search quiet moves late in the order less deeply, re-searching if one surprises
+ * @param futility           skip quiet moves one or two plies from the horizon that cannot reach alpha
+ * @param reverseFutility    cut near the horizon when the static score is far above beta
+ */
+public record Pruning(boolean nullMove, boolean lateMoveReductions, boolean futility, boolean reverseFutility) {
+
+    public static final Pruning ALL = new Pruning(true, true, true, true);
+    public static final Pruning NONE = new Pruning(false, false, false, false);
+
+    public Pruning withNullMove(boolean enabled) {
+        return new Pruning(enabled, lateMoveReductions, futility, reverseFutility);
+    }
+
+    public Pruning withLateMoveReductions(boolean enabled) {
+        return new Pruning(nullMove, enabled, futility, reverseFutility);
+    }
+
+    public Pruning withFutility(boolean enabled) {
+        return new Pruning(nullMove, lateMoveReductions, enabled, reverseFutility);
+    }
+
+    public Pruning withReverseFutility(boolean enabled) {
+        return new Pruning(nullMove, lateMoveReductions, futility, enabled);
+    }
+}
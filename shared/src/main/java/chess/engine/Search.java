@@ -0,0 +1,665 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Iterative-deepening negamax search with alpha-beta pruning.
+ * <p>
+ * Each search runs on its own copy of the board, with moves played and taken
+ * back through an {@link Evaluation} so its running totals stay in step.
+ * The move pickers and the principal variation table are allocated once
+ * per instance, so searching does not allocate until the result is built. The
+ * best move of each completed iteration is tried first in the next one, and
+ * if time runs out part way through an iteration the previous one's answer is
+ * kept. An instance searches one position at a time; {@link #stop()} may be
+ * called from another thread.
+ * <p>
+ * Results go into a {@link TranspositionTable}, which may be shared with other
+ * searches. A stored bound that already settles the node ends it early, and
+ * otherwise the {@link MoveOrderer} tries the stored move first.
+ * <p>
+ * With more than one thread in the limits the search runs "Lazy SMP": helper
+ * threads search the same root on their own board copies, every other one
+ * starting a ply deeper, and share nothing but the table. They fill it with
+ * results the main thread then picks up, so the main thread gets deeper in
+ * the same time. The main thread's answer is the one returned, with the node
+ * count of all threads.
+ * <p>
+ * Moves after the first are searched with a null window around alpha and only
+ * searched again in full if one beats it. On top of that the {@link Pruning}
+ * techniques skip or shorten lines that are unlikely to matter; all of them
+ * stay out of PV nodes and positions in check.
+ * <p>
+ * With a soft time limit no new iteration starts once it has passed, and it
+ * shrinks while the best move stays the same from one iteration to the next.
+ * {@link #ponder} searches without a clock, while the opponent is thinking,
+ * until {@link #ponderHit} starts it or {@link #stop()} ends the search.
+ * <p>
+ * In multi-PV mode the root is searched once per line asked for, each time
+ * leaving out the moves already given one, so the lines come out best first
+ * with exact scores. A {@link SearchListener} hears about every completed
+ * iteration.
+ */
+public class Search {
+
+    public static final int MATE = 30000;
+    public static final int INFINITY = 32000;
+
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH + 1;
+    // how many nodes go by between looks at the clock
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int DEFAULT_TABLE_MB = 16;
+    // share of the soft limit used, in percent, by how many iterations in a row kept the best move
+    private static final int[] STABLE_TIME_PERCENT = {100, 85, 70, 55, 45};
+
+    // null move: only this deep, and searched this much shallower on top of the one ply it skips
+    private static final int NULL_MOVE_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    // reverse futility: cut when the static score beats beta by this much per remaining ply
+    private static final int REVERSE_FUTILITY_DEPTH = 3;
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    // futility: by remaining depth, how far a quiet move could lift the static score
+    private static final int[] FUTILITY_MARGIN = {0, 150, 300};
+    // late move reductions: from this depth on, for quiet moves after this many
+    private static final int LMR_DEPTH = 3;
+    private static final int LMR_MOVES = 3;
+    // reduction by remaining depth and move number, growing with the log of both
+    private static final int[][] REDUCTIONS = new int[MAX_PLY][64];
+
+    static {
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int moves = 1; moves < 64; moves++) {
+                REDUCTIONS[depth][moves] = (int) (0.75 + Math.log(depth) * Math.log(moves) / 2.25);
+            }
+        }
+    }
+
+    // pv[ply] holds the best line found from ply onwards, pvLength[ply] is where it ends
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final MoveList rootMoves = new MoveList();
+    // score and line of each multi-PV root move, from the current iteration
+    private int[] lineScore = new int[1];
+    private int[][] linePv = new int[1][MAX_PLY];
+    private int[] lineLength = new int[1];
+    private final TranspositionTable table;
+    private final Pruning pruning;
+    private final Evaluation evaluation = new Evaluation();
+    private final MoveOrderer orderer = new MoveOrderer();
+
+    private ChessBoard board;
+    private long nodes;
+    // a helper's node count as of its last finished iteration, what the main thread reads while it runs
+    private volatile long reportedNodes;
+    private volatile boolean stopped;
+    // the clock, which ponderHit may set from another thread; while pondering it has not started
+    private volatile boolean pondering;
+    private volatile long clockStart;
+    private volatile long softNanos;
+    private volatile long deadline;
+    private volatile int maxDepth;
+    private int multiPv = 1;
+    private SearchListener listener;
+    // set by cancel(), for good; guarded by this so no search can start after it
+    private boolean cancelled;
+    // set during the first iteration, which always finishes so there is a move to play
+    private boolean mustFinish;
+    // searches run by helper threads, kept so later searches reuse their move pickers and PV tables
+    private volatile Search[] helpers = new Search[0];
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    public Search(TranspositionTable table) {
+        this(table, Pruning.ALL);
+    }
+
+    public Search(TranspositionTable table, Pruning pruning) {
+        this.table = table;
+        this.pruning = pruning;
+    }
+
+    /**
+     * Searches the game's current position for its side to move. The game
+     * itself is not changed.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, null);
+    }
+
+    /**
+     * Searches like {@link #search(ChessGame, SearchLimits)}, telling the
+     * listener, if not null, about every completed iteration
+     *
+     * @throws CancellationException if the search was cancelled before it could start
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, SearchListener listener) {
+        begin();
+        startClock(limits);
+        multiPv = limits.multiPv();
+        this.listener = listener;
+        return run(ChessBoard.copyOf(game.getBoard()), game.getTeamTurn(), limits.threads());
+    }
+
+    /**
+     * Starts searching the game's position on the executor with no limits,
+     * for as long as the opponent thinks. They come with {@link #ponderHit},
+     * and until then only {@link #stop()} or a forced mate end the search.
+     * The instance must not be searching anything else.
+     */
+    public CompletableFuture<SearchResult> ponder(ChessGame game, int threads, Executor executor) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        // set up here rather than on the executor, so a stop or ponder hit right after this is never lost
+        begin();
+        pondering = true;
+        maxDepth = SearchLimits.MAX_DEPTH;
+        softNanos = 0;
+        deadline = Long.MAX_VALUE;
+        multiPv = 1;
+        listener = null;
+        ChessBoard copy = ChessBoard.copyOf(game.getBoard());
+        ChessGame.TeamColor side = game.getTeamTurn();
+        return CompletableFuture.supplyAsync(() -> run(copy, side, threads), executor);
+    }
+
+    /**
+     * The opponent played the move being pondered: the search goes on, now
+     * against the clock of the given limits, started at this call
+     */
+    public void ponderHit(SearchLimits limits) {
+        startClock(limits);
+    }
+
+    private void startClock(SearchLimits limits) {
+        long now = System.nanoTime();
+        clockStart = now;
+        softNanos = limits.softTimeMillis() * 1_000_000;
+        deadline = limits.timeMillis() > 0 ? now + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        maxDepth = limits.depth();
+        pondering = false;
+    }
+
+    private SearchResult run(ChessBoard position, ChessGame.TeamColor side, int threads) {
+        long start = System.nanoTime();
+        board = position;
+        evaluation.reset(board);
+        orderer.newSearch();
+        nodes = 0;
+        table.newSearch();
+
+        rootMoves.clear();
+        MoveGenerator.legalMoves(board, side, -1L, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int king = board.kingSquare(side);
+            boolean inCheck = king >= 0 && board.isSquareAttacked(king, side.opposite(), board.occupied());
+            return new SearchResult(null, inCheck ? -MATE : 0, List.of(), 0, 0, elapsedMillis(start), List.of());
+        }
+        int lines = Math.min(multiPv, rootMoves.size());
+        if (lineScore.length < lines) {
+            lineScore = new int[lines];
+            linePv = new int[lines][MAX_PLY];
+            lineLength = new int[lines];
+        }
+
+        Thread[] workers = startHelpers(side, threads - 1);
+        SearchResult result = null;
+        int bestMove = Move.NONE;
+        int stable = 0;
+        boolean joined;
+        try {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                mustFinish = depth == 1;
+                searchRoot(depth, side, lines);
+                if (stopped && result != null) {
+                    break;
+                }
+                stable = Move.same(bestMove, linePv[0][0]) ? stable + 1 : 0;
+                bestMove = linePv[0][0];
+                result = result(lines, depth, start, workers.length);
+                if (listener != null) {
+                    listener.iterationComplete(result);
+                }
+                if (lines == 1 && Math.abs(lineScore[0]) >= MATE - depth) {
+                    break; // forced mate found, deeper won't find a shorter one
+                }
+                if (outOfTime(stable)) {
+                    break;
+                }
+            }
+        } finally {
+            joined = stopHelpers(workers);
+        }
+        return result(result, workers.length, joined, start);
+    }
+
+    // The lines of the iteration just completed
+    private SearchResult result(int lines, int depth, long start, int workers) {
+        List<SearchResult.Line> found = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            List<ChessMove> line = new ArrayList<>(lineLength[i]);
+            for (int m = 0; m < lineLength[i]; m++) {
+                line.add(Move.toChessMove(linePv[i][m]));
+            }
+            found.add(new SearchResult.Line(lineScore[i], List.copyOf(line)));
+        }
+        SearchResult.Line best = found.get(0);
+        return new SearchResult(best.pv().get(0), best.score(), best.pv(), depth, totalNodes(workers, false),
+                elapsedMillis(start), List.copyOf(found));
+    }
+
+    // The same result with the final node count and time
+    private SearchResult result(SearchResult result, int workers, boolean joined, long start) {
+        return new SearchResult(result.bestMove(), result.score(), result.pv(), result.depth(),
+                totalNodes(workers, joined), elapsedMillis(start), result.lines());
+    }
+
+    // Helpers' own counts are only safe to read once their threads are joined, until then take what they reported
+    private long totalNodes(int workers, boolean joined) {
+        long total = nodes;
+        for (int i = 0; i < workers; i++) {
+            total += joined ? helpers[i].nodes : helpers[i].reportedNodes;
+        }
+        return total;
+    }
+
+    /**
+     * Ends the running search and makes every later call to this instance
+     * fail with a {@link CancellationException}. Unlike {@link #stop()} this
+     * also catches a search that is handed to another thread but has not
+     * started yet.
+     */
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+        }
+        stop();
+    }
+
+    private synchronized void begin() {
+        if (cancelled) {
+            throw new CancellationException("Search was cancelled");
+        }
+        stopped = false;
+    }
+
+    /**
+     * Asks a running search to finish; it returns the deepest completed
+     * iteration. A search that has not started yet is not affected, see
+     * {@link #cancel()}.
+     */
+    public void stop() {
+        stopped = true;
+        for (Search helper : helpers) {
+            helper.stopped = true;
+        }
+    }
+
+    public TranspositionTable transpositionTable() {
+        return table;
+    }
+
+    public Pruning pruning() {
+        return pruning;
+    }
+
+    /**
+     * @return true if the score means a forced mate for either side
+     */
+    public static boolean isMate(int score) {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    // Mate scores count plies from the root, the table stores them counted from the node instead
+    static int toTable(int score, int ply) {
+        if (isMate(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    static int fromTable(int score, int ply) {
+        if (isMate(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    // Starts count helper threads on copies of the root, each searching until stopped
+    private Thread[] startHelpers(ChessGame.TeamColor side, int count) {
+        if (helpers.length < count) {
+            Search[] grown = Arrays.copyOf(helpers, count);
+            for (int i = helpers.length; i < count; i++) {
+                grown[i] = new Search(table, pruning);
+            }
+            helpers = grown;
+        }
+        Thread[] workers = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            Search helper = helpers[i];
+            helper.board = ChessBoard.copyOf(board);
+            helper.evaluation.reset(helper.board);
+            helper.orderer.newSearch();
+            helper.rootMoves.clear();
+            for (int m = 0; m < rootMoves.size(); m++) {
+                helper.rootMoves.add(rootMoves.get(m));
+            }
+            helper.nodes = 0;
+            helper.reportedNodes = 0;
+            helper.deadline = Long.MAX_VALUE;
+            helper.mustFinish = false;
+            helper.stopped = stopped;
+            int firstDepth = 1 + (i + 1) % 2;
+            workers[i] = Thread.ofPlatform().daemon().name("search-helper-" + (i + 1))
+                    .start(() -> helper.help(side, firstDepth));
+        }
+        return workers;
+    }
+
+    // Whether the soft limit, shortened the longer the best move has held, leaves no time for another iteration
+    private boolean outOfTime(int stable) {
+        long soft = softNanos;
+        if (pondering || soft == 0) {
+            return false;
+        }
+        return System.nanoTime() - clockStart > softBudget(soft, stable);
+    }
+
+    // The soft limit, cut down once the best move has held for stable iterations in a row
+    static long softBudget(long softNanos, int stable) {
+        return softNanos / 100 * STABLE_TIME_PERCENT[Math.min(stable, STABLE_TIME_PERCENT.length - 1)];
+    }
+
+    private void help(ChessGame.TeamColor side, int firstDepth) {
+        for (int depth = firstDepth; depth <= SearchLimits.MAX_DEPTH && !stopped; depth++) {
+            searchRoot(depth, side, 1);
+            reportedNodes = nodes;
+        }
+    }
+
+    // true once every helper has been joined, false if interrupted first
+    private boolean stopHelpers(Thread[] workers) {
+        for (int i = 0; i < workers.length; i++) {
+            helpers[i].stopped = true;
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finds the best lines one after the other, each among the root moves not given one yet
+    private void searchRoot(int depth, ChessGame.TeamColor side, int lines) {
+        for (int line = 0; line < lines; line++) {
+            int score = searchRootMoves(depth, side, line);
+            if (stopped && !mustFinish) {
+                return;
+            }
+            lineScore[line] = score;
+            lineLength[line] = pvLength[0];
+            System.arraycopy(pv[0], 0, linePv[line], 0, pvLength[0]);
+        }
+    }
+
+    // Searches the root moves from first on and moves the best of them to first
+    private int searchRootMoves(int depth, ChessGame.TeamColor side, int first) {
+        pvLength[0] = 0;
+        int alpha = -INFINITY;
+        int bestIndex = first;
+        for (int i = first; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            evaluation.makeMove(move);
+            int score;
+            if (i == first) {
+                score = -negamax(depth - 1, 1, -INFINITY, -alpha, side.opposite(), true);
+            } else {
+                score = -negamax(depth - 1, 1, -alpha - 1, -alpha, side.opposite(), true);
+                if (score > alpha) {
+                    score = -negamax(depth - 1, 1, -INFINITY, -alpha, side.opposite(), true);
+                }
+            }
+            evaluation.unmakeMove();
+            if (stopped && !mustFinish) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+                updatePv(0, move);
+            }
+        }
+
+        // the best move goes first next iteration; with moves left out the score is not the position's
+        int best = rootMoves.get(bestIndex);
+        if (!stopped && first == 0) {
+            table.store(positionKey(side), best, toTable(alpha, 0), depth, TranspositionTable.EXACT);
+        }
+        for (int i = bestIndex; i > first; i--) {
+            rootMoves.set(i, rootMoves.get(i - 1));
+        }
+        rootMoves.set(first, best);
+        return alpha;
+    }
+
+    // nullAllowed is false right after a null move, two in a row would just hand the move back
+    private int negamax(int depth, int ply, int alpha, int beta, ChessGame.TeamColor side, boolean nullAllowed) {
+        pvLength[ply] = ply;
+        nodes++;
+        if ((nodes % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped && !mustFinish) {
+            return 0;
+        }
+        if (depth == 0) {
+            return quiescence(ply, alpha, beta, side);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluation.evaluate(side);
+        }
+
+        long key = positionKey(side);
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                // an exact score inside the window would cut the PV short, so only bounds outside it end the node
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if ((score >= beta && bound != TranspositionTable.UPPER)
+                        || (score <= alpha && bound != TranspositionTable.LOWER)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        boolean inCheck = isInCheck(side);
+        int staticEval = inCheck ? -INFINITY : evaluation.evaluate(side);
+        if (!pvNode && !inCheck && !isMate(beta)) {
+            if (pruning.reverseFutility() && depth <= REVERSE_FUTILITY_DEPTH
+                    && staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                return staticEval;
+            }
+            // with only pawns left passing can be the best move (zugzwang), and then this would cut wrongly
+            if (pruning.nullMove() && nullAllowed && depth >= NULL_MOVE_DEPTH && staticEval >= beta
+                    && hasPieces(side)) {
+                int reduced = Math.max(depth - 1 - NULL_MOVE_REDUCTION - depth / 4, 0);
+                // nothing to play, the key already changes with the side to move
+                int score = -negamax(reduced, ply + 1, -beta, -beta + 1, side.opposite(), false);
+                if (stopped && !mustFinish) {
+                    return 0;
+                }
+                if (score >= beta) {
+                    return isMate(score) ? beta : score;
+                }
+            }
+        }
+        boolean futile = pruning.futility() && !pvNode && !inCheck && depth < FUTILITY_MARGIN.length
+                && staticEval + FUTILITY_MARGIN[depth] <= alpha;
+
+        MoveOrderer.Picker moves = orderer.picker(ply, board, side, ttMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int move;
+        while ((move = moves.next()) != Move.NONE) {
+            boolean late = moves.picked() > 1 && MoveOrderer.isQuiet(move);
+            evaluation.makeMove(move);
+            // checks are never pruned or reduced
+            boolean quiet = late && !isInCheck(side.opposite());
+            if (quiet && futile) {
+                evaluation.unmakeMove();
+                continue;
+            }
+            int score;
+            if (moves.picked() == 1) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, side.opposite(), true);
+            } else {
+                int reduction = 0;
+                if (quiet && pruning.lateMoveReductions() && !inCheck && depth >= LMR_DEPTH
+                        && moves.picked() > LMR_MOVES) {
+                    reduction = Math.min(REDUCTIONS[depth][Math.min(moves.picked(), 63)], depth - 2);
+                }
+                score = -negamax(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, side.opposite(), true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha, side.opposite(), true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, side.opposite(), true);
+                }
+            }
+            evaluation.unmakeMove();
+            if (stopped && !mustFinish) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (MoveOrderer.isQuiet(move)) {
+                            orderer.cutoff(ply, side, move, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (best == -INFINITY) {
+            // no legal moves, mates closer to the root score higher
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    // Plays out captures and promotions until the position is quiet, so the
+    // horizon never falls in the middle of an exchange. The side to move may
+    // always stand pat on the static score unless it is in check.
+    private int quiescence(int ply, int alpha, int beta, ChessGame.TeamColor side) {
+        pvLength[ply] = ply;
+        nodes++;
+        if ((nodes % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped && !mustFinish) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluation.evaluate(side);
+        }
+
+        MoveOrderer.Picker moves;
+        int best;
+        if (isInCheck(side)) {
+            // every evasion has to be looked at, or a mate could pass for a quiet position
+            moves = orderer.picker(ply, board, side, Move.NONE);
+            best = -INFINITY;
+        } else {
+            best = evaluation.evaluate(side);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            moves = orderer.noisyPicker(ply, board, side);
+        }
+
+        int move;
+        while ((move = moves.next()) != Move.NONE) {
+            evaluation.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha, side.opposite());
+            evaluation.unmakeMove();
+            if (stopped && !mustFinish) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (best == -INFINITY) {
+            return -MATE + ply; // in check with no way out
+        }
+        return best;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private boolean isInCheck(ChessGame.TeamColor side) {
+        int king = board.kingSquare(side);
+        return king >= 0 && board.isSquareAttacked(king, side.opposite(), board.occupied());
+    }
+
+    // Anything besides pawns and the king
+    private boolean hasPieces(ChessGame.TeamColor side) {
+        return (board.pieces(side) & ~board.pieces(side, ChessPiece.PieceType.PAWN)
+                & ~board.pieces(side, ChessPiece.PieceType.KING)) != 0;
+    }
+
+    private long positionKey(ChessGame.TeamColor side) {
+        return board.positionKey() ^ Zobrist.sideToMove(side);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,64 @@
+package chess.engine;
+
+/**
+ * How far a {@link Search} may go: a maximum depth in plies and a time budget
+ * in milliseconds, 0 for no time limit. Whichever runs out first ends the
+ * search, and the deepest completed iteration is what gets played.
+ * <p>
+ * softTimeMillis, if not 0, is the time after which no new iteration is
+ * started, since it would rarely finish before the hard limit. The search
+ * gives up on it earlier when the best move keeps coming out the same, see
+ * {@link TimeManager} for limits worked out from a clock.
+ * <p>
+ * threads is how many threads search the position together, see {@link Search}.
+ * multiPv is how many of the best moves get a score and line of their own,
+ * 1 to only look for the best.
+ */
+public record SearchLimits(int depth, long softTimeMillis, long timeMillis, int threads, int multiPv) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (timeMillis < 0 || softTimeMillis < 0) {
+            throw new IllegalArgumentException("time limits must not be negative");
+        }
+        if (timeMillis > 0 && softTimeMillis > timeMillis) {
+            throw new IllegalArgumentException("softTimeMillis must not be above timeMillis");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (multiPv < 1) {
+            throw new IllegalArgumentException("multiPv must be at least 1");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0, 1, 1);
+    }
+
+    /**
+     * @return limits that search as deep as the time allows
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_DEPTH, 0, timeMillis, 1, 1);
+    }
+
+    /**
+     * @return limits that stop starting iterations after softTimeMillis and stop searching after hardTimeMillis
+     */
+    public static SearchLimits time(long softTimeMillis, long hardTimeMillis) {
+        return new SearchLimits(MAX_DEPTH, softTimeMillis, hardTimeMillis, 1, 1);
+    }
+
+    public SearchLimits withThreads(int threads) {
+        return new SearchLimits(depth, softTimeMillis, timeMillis, threads, multiPv);
+    }
+
+    public SearchLimits withMultiPv(int multiPv) {
+        return new SearchLimits(depth, softTimeMillis, timeMillis, threads, multiPv);
+    }
+}
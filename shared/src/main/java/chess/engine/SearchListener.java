@@ -0,0 +1,14 @@
+package chess.engine;
+
+/**
+ * Hears about a {@link Search} as it goes, for showing progress while it
+ * still runs. Called on the searching thread, so it should return quickly.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * @param result what the search has found so far, as of the iteration just completed
+     */
+    void iterationComplete(SearchResult result);
+}
@@ -0,0 +1,31 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * What a {@link Search} found
+ *
+ * @param bestMove   move to play, null if the side to move has no legal moves
+ * @param score      centipawns from the side to move's point of view, see {@link Search#isMate(int)}
+ * @param pv         principal variation starting with bestMove
+ * @param depth      deepest completed iteration
+ * @param nodes      positions visited
+ * @param timeMillis wall time spent searching
+ * @param lines      best first, one per move asked for with {@link SearchLimits#multiPv()}; the first is
+ *                   bestMove's, and there are fewer if the position has fewer legal moves
+ */
+public record SearchResult(ChessMove bestMove, int score, List<ChessMove> pv, int depth, long nodes,
+                           long timeMillis, List<Line> lines) {
+
+    /**
+     * One root move's score and the line it leads to, the move itself first
+     */
+    public record Line(int score, List<ChessMove> pv) {
+    }
+
+    public long nodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+}
@@ -0,0 +1,152 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+
+/**
+ * Static exchange evaluation: what a capture wins or loses in material once
+ * both sides have traded off every piece that can take back on the square,
+ * each time using their least valuable attacker and either side free to stop.
+ * Only the attack masks are looked at, no moves are played. Pieces behind a
+ * capturer join in as it leaves (attackers are worked out again from the
+ * shrinking occupancy), pins are ignored.
+ */
+public final class StaticExchange {
+
+    // by PieceType ordinal, the king only matters as the last capturer
+    private static final int[] VALUES = {20000, 900, 330, 320, 500, 100};
+    // least valuable first
+    private static final ChessPiece.PieceType[] CAPTURE_ORDER = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING};
+    private static final int MAX_EXCHANGES = 32;
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @return centipawns won by the move's side at the end of the exchange, negative if it loses material
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        return evaluate(board, Move.of(move));
+    }
+
+    /**
+     * @param move a {@link Move}-encoded move for the piece on its from square
+     * @return centipawns won by the move's side at the end of the exchange, negative if it loses material
+     */
+    public static int evaluate(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moving = board.pieceAt(from);
+        ChessGame.TeamColor side = moving.getTeamColor();
+        int[] gain = new int[MAX_EXCHANGES];
+        gain[0] = capturedValue(board, move);
+        int onSquare = movingValue(moving, move);
+        long occupied = board.occupied() ^ Bitboards.bit(from);
+
+        int depth = 0;
+        while (depth < MAX_EXCHANGES - 1) {
+            side = side.opposite();
+            int attacker = leastValuableAttacker(board, to, side, occupied);
+            if (attacker < 0 || kingWouldBeTaken(board, attacker, to, side, occupied)) {
+                break;
+            }
+            depth++;
+            // taking the piece on the square, from this side's point of view
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = VALUES[board.pieceAt(attacker).getPieceType().ordinal()];
+            occupied ^= Bitboards.bit(attacker);
+        }
+        // each side takes back only if that beats stopping
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Cheaper check of whether the exchange wins at least threshold centipawns.
+     * Stops as soon as the answer is settled and does not allocate, which is
+     * what the search uses.
+     */
+    public static boolean atLeast(ChessBoard board, int move, int threshold) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moving = board.pieceAt(from);
+        int balance = capturedValue(board, move) - threshold;
+        if (balance < 0) {
+            return false; // even keeping the captured piece is not enough
+        }
+        balance = movingValue(moving, move) - balance;
+        if (balance <= 0) {
+            return true; // even losing the moving piece still leaves enough
+        }
+
+        long occupied = board.occupied() ^ Bitboards.bit(from);
+        ChessGame.TeamColor side = moving.getTeamColor();
+        boolean winning = true;
+        while (true) {
+            side = side.opposite();
+            int attacker = leastValuableAttacker(board, to, side, occupied);
+            if (attacker < 0) {
+                break;
+            }
+            if (kingWouldBeTaken(board, attacker, to, side, occupied)) {
+                break;
+            }
+            winning = !winning;
+            // balance is what the side to capture needs to stay ahead after taking
+            balance = VALUES[board.pieceAt(attacker).getPieceType().ordinal()] - balance;
+            occupied ^= Bitboards.bit(attacker);
+            if (balance < (winning ? 1 : 0)) {
+                break;
+            }
+        }
+        return winning;
+    }
+
+    private static int capturedValue(ChessBoard board, int move) {
+        ChessPiece captured = board.pieceAt(Move.to(move));
+        int value = captured == null ? 0 : VALUES[captured.getPieceType().ordinal()];
+        if (Move.isPromotion(move)) {
+            value += VALUES[Move.promotion(move).ordinal()] - VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        }
+        return value;
+    }
+
+    private static int movingValue(ChessPiece moving, int move) {
+        ChessPiece.PieceType type = Move.isPromotion(move) ? Move.promotion(move) : moving.getPieceType();
+        return VALUES[type.ordinal()];
+    }
+
+    // Square of the side's cheapest piece attacking the target, -1 if there is none
+    private static int leastValuableAttacker(ChessBoard board, int target, ChessGame.TeamColor side, long occupied) {
+        long attackers = board.attackersTo(target, side, occupied) & occupied;
+        if (attackers == 0) {
+            return -1;
+        }
+        for (ChessPiece.PieceType type : CAPTURE_ORDER) {
+            long ofType = attackers & board.pieces(side, type);
+            if (ofType != 0) {
+                return Long.numberOfTrailingZeros(ofType);
+            }
+        }
+        return -1;
+    }
+
+    // A king may only take last, when nothing of the other side still covers the square
+    private static boolean kingWouldBeTaken(ChessBoard board, int attacker, int target, ChessGame.TeamColor side,
+                                            long occupied) {
+        if (board.pieceAt(attacker).getPieceType() != ChessPiece.PieceType.KING) {
+            return false;
+        }
+        long remaining = occupied ^ Bitboards.bit(attacker);
+        return (board.attackersTo(target, side.opposite(), remaining) & remaining) != 0;
+    }
+}
@@ -0,0 +1,38 @@
+package chess.engine;
+
+/**
+ * Turns a player's clock into {@link SearchLimits} for one move. The soft
+ * limit is an even share of the remaining time plus most of the increment;
+ * the hard limit allows a few times that for iterations that are already
+ * running, but never more than half of what is left on the clock. A little
+ * is always held back for the move to reach the server.
+ */
+public final class TimeManager {
+
+    // moves the remaining time is assumed to have to last when nothing says otherwise
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long OVERHEAD_MILLIS = 50;
+    private static final int HARD_FACTOR = 4;
+
+    private TimeManager() {
+    }
+
+    public static SearchLimits limits(long remainingMillis, long incrementMillis) {
+        return limits(remainingMillis, incrementMillis, DEFAULT_MOVES_TO_GO);
+    }
+
+    /**
+     * @param remainingMillis time left on the clock of the side to move
+     * @param incrementMillis time added to that clock after each move
+     * @param movesToGo       moves until the clock is next topped up, or an estimate
+     */
+    public static SearchLimits limits(long remainingMillis, long incrementMillis, int movesToGo) {
+        if (remainingMillis < 0 || incrementMillis < 0 || movesToGo < 1) {
+            throw new IllegalArgumentException("clock must not be negative and movesToGo must be at least 1");
+        }
+        long usable = Math.max(remainingMillis - OVERHEAD_MILLIS, 1);
+        long soft = usable / movesToGo + incrementMillis * 3 / 4;
+        long hard = Math.max(Math.min(soft * HARD_FACTOR, usable / 2), 1);
+        return SearchLimits.time(Math.max(Math.min(soft, hard), 1), hard);
+    }
+}
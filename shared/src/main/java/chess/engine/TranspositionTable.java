@@ -0,0 +1,223 @@
+package chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size hash table of search results keyed by the 64-bit Zobrist key,
+ * safe to share between search threads without locks.
+ * <p>
+ * Each entry is two longs in one {@code long[]}: the key XOR the data, then
+ * the data. Plain long array accesses may tear (JLS 17.7), so each half goes
+ * through an opaque {@link VarHandle} access, which is whole but orders
+ * nothing, and on 64-bit hardware compiles to the same plain load or store.
+ * Two threads can still interleave their halves. The XOR catches that: unless
+ * both halves come from the same write, key ^ data does not give back the
+ * probed key, so a torn entry reads as a miss instead of as wrong data.
+ * <p>
+ * Data packs the move (bits 0-15), score (16-31), depth (32-39), bound (40-41)
+ * and the search generation (42-49). Entries sit in buckets of two. The first
+ * slot keeps the deeper or more recent result and the second is always
+ * replaced, so deep results survive without the table filling up with stale
+ * ones.
+ * <p>
+ * Probe, hit and store counts cost a shared counter update per call, so they
+ * are only kept when the table is made with stats on.
+ */
+public final class TranspositionTable {
+
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    private static final int BUCKET = 2;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int GENERATIONS = 256;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    private final boolean stats;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param megabytes table size, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int megabytes) {
+        this(megabytes, false);
+    }
+
+    /**
+     * @param megabytes table size, rounded down to a power of two number of buckets
+     * @param stats whether to count probes, hits and stores
+     */
+    public TranspositionTable(int megabytes, boolean stats) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("megabytes must be at least 1");
+        }
+        long bytesPerBucket = BUCKET * LONGS_PER_ENTRY * Long.BYTES;
+        long buckets = Long.highestOneBit(megabytes * 1024L * 1024L / bytesPerBucket);
+        if (buckets * BUCKET * LONGS_PER_ENTRY > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("table too large: " + megabytes + " MB");
+        }
+        table = new long[(int) (buckets * BUCKET * LONGS_PER_ENTRY)];
+        bucketMask = (int) buckets - 1;
+        this.stats = stats;
+    }
+
+    /**
+     * @return the packed entry for the key, or 0 if there is none
+     */
+    public long probe(long key) {
+        if (stats) {
+            probes.increment();
+        }
+        int index = bucketIndex(key);
+        for (int slot = 0; slot < BUCKET; slot++, index += LONGS_PER_ENTRY) {
+            long data = get(index + 1);
+            if ((get(index) ^ data) == key && data != 0) {
+                if (stats) {
+                    hits.increment();
+                }
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a result, keeping the old move if the new one has none
+     *
+     * @param score already adjusted for mate distance, see {@link Search}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        if (stats) {
+            stores.increment();
+        }
+        int bucket = bucketIndex(key);
+        int index = bucket;
+        long old = 0;
+        for (int slot = 0; slot < BUCKET; slot++, index += LONGS_PER_ENTRY) {
+            long data = get(index + 1);
+            if ((get(index) ^ data) == key) {
+                old = data;
+                break;
+            }
+        }
+        if (old == 0) {
+            // the first slot only gives way to an equal or deeper result, or when it is stale
+            long first = get(bucket + 1);
+            boolean replaceFirst = first == 0 || age(first) != 0 || depth >= depth(first);
+            index = replaceFirst ? bucket : bucket + LONGS_PER_ENTRY;
+        } else if (move == 0) {
+            move = move(old);
+        }
+
+        long data = pack(move, score, depth, bound, generation);
+        SLOT.setOpaque(table, index, key ^ data);
+        SLOT.setOpaque(table, index + 1, data);
+    }
+
+    /**
+     * Starts a new generation so results from earlier searches are replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    /**
+     * @return how many entries the table can hold
+     */
+    public int capacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * @return probes so far, always 0 without stats
+     */
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return share of probes that found an entry, 0 before any probe or without stats
+     */
+    public double hitRate() {
+        long probed = probes.sum();
+        return probed == 0 ? 0 : (double) hits.sum() / probed;
+    }
+
+    /**
+     * @return entries from the current search per thousand, sampled from the first thousand
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int entry = 0; entry < sample; entry++) {
+            long data = get(entry * LONGS_PER_ENTRY + 1);
+            if (data != 0 && age(data) == 0) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 3;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(depth, 255) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+    }
+
+    // how many searches ago the entry was written
+    private int age(long entry) {
+        int written = (int) (entry >>> 42) & (GENERATIONS - 1);
+        return (generation - written + GENERATIONS) % GENERATIONS;
+    }
+
+    private long get(int index) {
+        return (long) SLOT.getOpaque(table, index);
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & bucketMask) * BUCKET * LONGS_PER_ENTRY;
+    }
+}
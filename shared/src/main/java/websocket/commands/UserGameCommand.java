@@ -20,11 +20,15 @@ public class UserGameCommand {
 
     private final ChessMove move;
 
+    // ANALYZE only: how many of the best moves to report
+    private final Integer lines;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = null;
+        this.lines = null;
     }
 
 
@@ -33,13 +37,23 @@ public class UserGameCommand {
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = move;
+        this.lines = null;
+    }
+
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, int lines) {
+        this.commandType = commandType;
+        this.authToken = authToken;
+        this.gameID = gameID;
+        this.move = null;
+        this.lines = lines;
     }
 
     public enum CommandType {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        ANALYZE
     }
 
     public CommandType getCommandType() {
@@ -58,6 +72,10 @@ public class UserGameCommand {
         return move;
     }
 
+    public Integer getLines() {
+        return lines;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -1,6 +1,9 @@
 package websocket.messages;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Search;
+import chess.engine.SearchResult;
 
 import java.util.Objects;
 
@@ -15,6 +18,7 @@ public class ServerMessage {
     ChessGame game;
     String message;
     String errorMessage;
+    SearchResult analysis;
 
     public enum ServerMessageType {
         LOAD_GAME,
@@ -38,6 +42,32 @@ public class ServerMessage {
         return msg;
     }
 
+    /**
+     * Progress of an analysis, as a notification readable as it is with the
+     * lines themselves alongside
+     */
+    public static ServerMessage analysis(SearchResult result){
+        StringBuilder text = new StringBuilder("Analysis depth " + result.depth() + ":");
+        for (int i = 0; i < result.lines().size(); i++) {
+            SearchResult.Line line = result.lines().get(i);
+            text.append(i == 0 ? " " : " | ").append(scoreText(line.score()));
+            for (ChessMove move : line.pv()) {
+                text.append(' ').append(move);
+            }
+        }
+        ServerMessage msg = notification(text.toString());
+        msg.analysis = result;
+        return msg;
+    }
+
+    private static String scoreText(int score) {
+        if (Search.isMate(score)) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            return (score > 0 ? "mate in " : "mated in ") + moves;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+
     public static ServerMessage error(String errorMessage){
         ServerMessage msg = new ServerMessage(ServerMessageType.ERROR);
         msg.errorMessage = errorMessage;
@@ -60,6 +90,10 @@ public class ServerMessage {
         return message;
     }
 
+    public SearchResult getAnalysis(){
+        return analysis;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
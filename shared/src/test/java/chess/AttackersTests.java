@@ -0,0 +1,34 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class AttackersTests {
+
+    // rook, pawn and knight hit d4; the queen on h4 is blocked by the pawn on f4
+    private static final String FEN = "3r3k/8/8/8/R4p1Q/2P5/4N3/K7 w - - 0 1";
+
+    @Test
+    @DisplayName("Exactly the Pieces That Reach the Square")
+    public void attackers() {
+        ChessBoard board = Fen.parse(FEN).getBoard();
+        Assertions.assertEquals(Set.of(ChessPosition.of(4, 1), ChessPosition.of(3, 3), ChessPosition.of(2, 5)),
+                new HashSet<>(board.attackersOf(ChessPosition.of(4, 4), ChessGame.TeamColor.WHITE)));
+        Assertions.assertEquals(Set.of(ChessPosition.of(8, 4)),
+                new HashSet<>(board.attackersOf(ChessPosition.of(4, 4), ChessGame.TeamColor.BLACK)));
+    }
+
+    @Test
+    @DisplayName("Unattacked and Blocked Squares")
+    public void noAttackers() {
+        ChessBoard board = Fen.parse(FEN).getBoard();
+        Assertions.assertTrue(board.attackersOf(ChessPosition.of(8, 2), ChessGame.TeamColor.WHITE).isEmpty());
+        // the pawn on f4 shields e4 from the queen, the rook's line to it is open
+        Assertions.assertEquals(Set.of(ChessPosition.of(4, 1)),
+                new HashSet<>(board.attackersOf(ChessPosition.of(4, 5), ChessGame.TeamColor.WHITE)));
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static chess.GameStatusCacheTests.at;
+
+/**
+ * equals and hashCode go by the Zobrist key, so boards holding the same
+ * pieces must get the same key however they were built: square by square,
+ * by moves, or by Gson filling in the grid.
+ */
+public class BoardKeyTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+    @Test
+    @DisplayName("Edits That Cancel Out")
+    public void editsCancelOut() {
+        ChessBoard board = Fen.parse(KIWIPETE).getBoard();
+        ChessBoard original = ChessBoard.copyOf(board);
+
+        board.addPiece(at("d4"), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertNotEquals(original, board);
+        Assertions.assertNotEquals(original.positionKey(), board.positionKey());
+        board.addPiece(at("d4"), null);
+        assertSameBoard(original, board);
+
+        // replacing one piece with another on the same square
+        ChessPiece queen = board.getPiece(at("f3"));
+        board.addPiece(at("f3"), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        Assertions.assertNotEquals(original, board);
+        board.addPiece(at("f3"), queen);
+        assertSameBoard(original, board);
+    }
+
+    @Test
+    @DisplayName("Built Square by Square or by Moves")
+    public void builtTwoWays() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        GameStatusCacheTests.play(game, "g1f3", "g8f6");
+
+        ChessBoard edited = new ChessGame().getBoard();
+        edited.addPiece(at("f3"), edited.getPiece(at("g1")));
+        edited.addPiece(at("g1"), null);
+        edited.addPiece(at("f6"), edited.getPiece(at("g8")));
+        edited.addPiece(at("g8"), null);
+        assertSameBoard(game.getBoard(), edited);
+        assertSameBoard(Fen.parse(Fen.toFen(game)).getBoard(), edited);
+    }
+
+    @Test
+    @DisplayName("Loaded with Gson")
+    public void gson() {
+        Gson gson = new Gson();
+        ChessBoard board = Fen.parse(KIWIPETE).getBoard();
+        ChessBoard loaded = gson.fromJson(gson.toJson(board), ChessBoard.class);
+        assertSameBoard(board, loaded);
+        Assertions.assertArrayEquals(MakeUnmakeTests.state(board), MakeUnmakeTests.state(loaded));
+
+        // edits after loading keep the key in step
+        board.addPiece(at("a1"), null);
+        loaded.addPiece(at("a1"), null);
+        assertSameBoard(board, loaded);
+    }
+
+    private static void assertSameBoard(ChessBoard expected, ChessBoard actual) {
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(actual, expected);
+        Assertions.assertEquals(expected.positionKey(), actual.positionKey());
+        Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static chess.ChessGame.GameStatus.*;
+import static chess.ChessGame.TeamColor.*;
+
+/**
+ * ChessGame keeps the last status per team until the board or its position
+ * key changes. Each test asks first so the answer is cached, changes the game
+ * one way or another, and checks the new answer.
+ */
+public class GameStatusCacheTests {
+
+    @Test
+    @DisplayName("Status Follows Moves")
+    public void followsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(NORMAL, game.status(WHITE));
+        play(game, "f2f3", "e7e5", "g2g4");
+        Assertions.assertEquals(NORMAL, game.status(WHITE));
+        play(game, "d8h4");
+        Assertions.assertEquals(CHECKMATE, game.status(WHITE));
+    }
+
+    @Test
+    @DisplayName("Same Position Reached Two Ways")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        for (String move : new String[]{"e2e4", "b8c6", "d1h5", "e7e5", "h5f7"}) {
+            play(first, move);
+            first.status(WHITE);
+            first.status(BLACK);
+        }
+        for (String move : new String[]{"e2e4", "e7e5", "d1h5", "b8c6", "h5f7"}) {
+            play(second, move);
+            second.status(WHITE);
+            second.status(BLACK);
+        }
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(CHECK, first.status(BLACK));
+        Assertions.assertEquals(CHECK, second.status(BLACK));
+    }
+
+    @Test
+    @DisplayName("Board Edited Directly")
+    public void editedBoard() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(NORMAL, game.status(BLACK));
+
+        game.getBoard().addPiece(at("f7"), ChessPiece.of(WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(CHECK, game.status(BLACK));
+        game.getBoard().addPiece(at("c4"), ChessPiece.of(WHITE, ChessPiece.PieceType.BISHOP));
+        Assertions.assertEquals(CHECKMATE, game.status(BLACK));
+        assertSameAsFresh(game);
+    }
+
+    @Test
+    @DisplayName("New Board and Turn")
+    public void setBoardAndTurn() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(NORMAL, game.status(BLACK));
+
+        game.setBoard(Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1").getBoard());
+        Assertions.assertEquals(STALEMATE, game.status(BLACK));
+        game.setTeamTurn(BLACK);
+        Assertions.assertEquals(STALEMATE, game.status(BLACK));
+        game.setBoard(ChessBoard.copyOf(new ChessGame().getBoard()));
+        Assertions.assertEquals(NORMAL, game.status(BLACK));
+    }
+
+    @Test
+    @DisplayName("Deserialized Game")
+    public void deserialized() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        play(game, "e2e4", "b8c6", "d1h5", "e7e5", "h5f7");
+        Assertions.assertEquals(CHECK, game.status(BLACK));
+
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(CHECK, loaded.status(BLACK));
+        play(loaded, "e8f7");
+        Assertions.assertEquals(NORMAL, loaded.status(BLACK));
+        Assertions.assertEquals(CHECK, game.status(BLACK));
+        assertSameAsFresh(loaded);
+    }
+
+    // a game parsed from the same FEN has nothing cached
+    private static void assertSameAsFresh(ChessGame game) {
+        ChessGame fresh = Fen.parse(Fen.toFen(game));
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            Assertions.assertEquals(fresh.status(team), game.status(team), team + " in " + Fen.toFen(game));
+        }
+    }
+
+    static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            game.makeMove(new ChessMove(at(move.substring(0, 2)), at(move.substring(2, 4)), null));
+        }
+    }
+
+    static ChessPosition at(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+}
@@ -0,0 +1,118 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static chess.ChessGame.TeamColor.*;
+import static chess.GameStatusCacheTests.at;
+import static chess.GameStatusCacheTests.play;
+
+/**
+ * ChessGame keeps the side to move's legal moves until the board, the turn or
+ * the position key changes. Each test fills the cache with a validMoves call
+ * first, changes the game, and checks validMoves and makeMove against a game
+ * parsed fresh from the same position.
+ */
+public class LegalMoveCacheTests {
+
+    @Test
+    @DisplayName("Moves Follow the Game")
+    public void followsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(2, game.validMoves(at("g1")).size());
+        play(game, "e2e4");
+        Assertions.assertEquals(2, game.validMoves(at("g8")).size());
+        play(game, "e7e5", "d1h5");
+        assertSameAsFresh(game);
+    }
+
+    @Test
+    @DisplayName("Same Position Reached Two Ways")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        for (String move : new String[]{"e2e4", "b8c6", "d1h5", "e7e5", "h5f7"}) {
+            first.validMoves(at(move.substring(0, 2)));
+            play(first, move);
+        }
+        for (String move : new String[]{"e2e4", "e7e5", "d1h5", "b8c6", "h5f7"}) {
+            second.validMoves(at(move.substring(0, 2)));
+            play(second, move);
+        }
+        Assertions.assertEquals(moves("e8f7"), new HashSet<>(first.validMoves(at("e8"))));
+        Assertions.assertEquals(moves("e8f7"), new HashSet<>(second.validMoves(at("e8"))));
+        assertSameAsFresh(first);
+        assertSameAsFresh(second);
+    }
+
+    @Test
+    @DisplayName("Board Edited Directly")
+    public void editedBoard() {
+        ChessGame game = new ChessGame();
+        game.setTeamTurn(BLACK);
+        Assertions.assertEquals(2, game.validMoves(at("g8")).size());
+        Assertions.assertTrue(game.validMoves(at("e8")).isEmpty());
+
+        game.getBoard().addPiece(at("f7"), ChessPiece.of(WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertTrue(game.validMoves(at("g8")).isEmpty());
+        Assertions.assertEquals(moves("e8f7"), new HashSet<>(game.validMoves(at("e8"))));
+        Assertions.assertThrows(InvalidMoveException.class, () -> play(game, "g8f6"));
+        assertSameAsFresh(game);
+    }
+
+    @Test
+    @DisplayName("New Board and Turn")
+    public void setBoardAndTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(2, game.validMoves(at("b1")).size());
+
+        game.setTeamTurn(BLACK);
+        Assertions.assertEquals(2, game.validMoves(at("b8")).size());
+        play(game, "b8c6");
+        Assertions.assertEquals(WHITE, game.getTeamTurn());
+
+        game.setBoard(Fen.parse("4k3/8/8/8/8/8/3q4/4K3 w - - 0 1").getBoard());
+        Assertions.assertEquals(moves("e1d2", "e1f1"), new HashSet<>(game.validMoves(at("e1"))));
+        Assertions.assertThrows(InvalidMoveException.class, () -> play(game, "e1e2"));
+        assertSameAsFresh(game);
+    }
+
+    @Test
+    @DisplayName("Deserialized Game")
+    public void deserialized() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        play(game, "e2e4", "b8c6", "d1h5", "e7e5", "h5f7");
+        Assertions.assertEquals(moves("e8f7"), new HashSet<>(game.validMoves(at("e8"))));
+
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(moves("e8f7"), new HashSet<>(loaded.validMoves(at("e8"))));
+        play(loaded, "e8f7");
+        assertSameAsFresh(loaded);
+        assertSameAsFresh(game);
+    }
+
+    // a game parsed from the same FEN has nothing cached
+    private static void assertSameAsFresh(ChessGame game) {
+        ChessGame fresh = Fen.parse(Fen.toFen(game));
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            for (ChessPosition piece : fresh.getBoard().allTeamPosition(team)) {
+                Assertions.assertEquals(new HashSet<>(fresh.validMoves(piece)), new HashSet<>(game.validMoves(piece)),
+                        "Moves of " + piece + " in " + Fen.toFen(game));
+            }
+        }
+    }
+
+    private static Set<ChessMove> moves(String... moves) {
+        Set<ChessMove> set = new HashSet<>();
+        for (String move : moves) {
+            set.add(new ChessMove(at(move.substring(0, 2)), at(move.substring(2, 4)), null));
+        }
+        return set;
+    }
+}
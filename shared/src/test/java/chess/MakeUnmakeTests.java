@@ -0,0 +1,94 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * makeMove followed by unmakeMove must leave the board exactly as it was:
+ * the squares, every bitboard, the king squares and the Zobrist key.
+ */
+public class MakeUnmakeTests {
+
+    private static final String[] POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1",
+    };
+
+    @Test
+    @DisplayName("Every Move Taken Back")
+    public void roundTrip() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            ChessBoard board = game.getBoard();
+            long[] before = state(board);
+            ChessBoard copy = ChessBoard.copyOf(board);
+
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(board, game.getTeamTurn(), -1L, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                board.makeMove(move);
+                // the replies too, so captures and promotions are undone two deep
+                MoveList replies = new MoveList();
+                MoveGenerator.legalMoves(board, game.getTeamTurn().opposite(), -1L, replies);
+                for (int j = 0; j < replies.size(); j++) {
+                    long[] after = state(board);
+                    board.makeMove(replies.get(j));
+                    board.unmakeMove();
+                    Assertions.assertArrayEquals(after, state(board),
+                            "Taking back " + Move.toString(replies.get(j)) + " after " + Move.toString(move) + " in " + fen);
+                }
+                board.unmakeMove();
+                Assertions.assertArrayEquals(before, state(board), "Taking back " + Move.toString(move) + " in " + fen);
+            }
+            Assertions.assertEquals(copy, board, fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Incremental State Matches a Fresh Board")
+    public void matchesFreshBoard() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            ChessBoard board = game.getBoard();
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(board, game.getTeamTurn(), -1L, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                game.setTeamTurn(game.getTeamTurn().opposite());
+                ChessBoard fresh = Fen.parse(Fen.toFen(game)).getBoard();
+                game.setTeamTurn(game.getTeamTurn().opposite());
+                Assertions.assertArrayEquals(state(fresh), state(board), "After " + Move.toString(moves.get(i)) + " in " + fen);
+                board.unmakeMove();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Nothing to Take Back")
+    public void emptyUndo() {
+        ChessBoard board = new ChessGame().getBoard();
+        Assertions.assertThrows(IllegalStateException.class, board::unmakeMove);
+    }
+
+    // key, occupancy, both color masks, the twelve piece masks and both king squares
+    static long[] state(ChessBoard board) {
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        long[] state = new long[2 + 2 * (2 + types.length)];
+        state[0] = board.positionKey();
+        state[1] = board.occupied();
+        int i = 2;
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            state[i++] = board.pieces(team);
+            state[i++] = board.kingSquare(team);
+            for (ChessPiece.PieceType type : types) {
+                state[i++] = board.pieces(team, type);
+            }
+        }
+        return state;
+    }
+}
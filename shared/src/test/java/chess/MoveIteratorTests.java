@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class MoveIteratorTests {
+
+    private static final String[] POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1",
+    };
+
+    @Test
+    @DisplayName("Same Moves as the Generator")
+    public void sameMoves() {
+        MoveIterator iterator = new MoveIterator();
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            MoveList expected = new MoveList();
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), -1L, expected);
+
+            Set<Integer> seen = new HashSet<>();
+            iterator.reset(game.getBoard(), game.getTeamTurn());
+            for (int move = iterator.next(); move != Move.NONE; move = iterator.next()) {
+                Assertions.assertTrue(expected.contains(move), "Unexpected move " + Move.toString(move) + " in " + fen);
+                Assertions.assertTrue(seen.add(move), "Duplicate move " + Move.toString(move) + " in " + fen);
+            }
+            Assertions.assertEquals(expected.size(), seen.size(), "Missing moves in " + fen);
+        }
+    }
+
+    @Test
+    @DisplayName("hasNext Agrees with next")
+    public void hasNext() {
+        MoveIterator iterator = new MoveIterator();
+        String[] noMoves = {"k7/1Q6/1K6/8/8/8/8/8 b - - 0 1", "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"};
+        for (String fen : noMoves) {
+            ChessGame game = Fen.parse(fen);
+            Assertions.assertFalse(iterator.reset(game.getBoard(), game.getTeamTurn()).hasNext(), fen);
+        }
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            iterator.reset(game.getBoard(), game.getTeamTurn());
+            boolean more = iterator.hasNext();
+            for (int move = iterator.next(); move != Move.NONE; move = iterator.next()) {
+                Assertions.assertTrue(more, "hasNext missed " + Move.toString(move) + " in " + fen);
+                more = iterator.hasNext();
+            }
+            Assertions.assertFalse(more, "hasNext after the last move in " + fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Captures Come First, Biggest Victim First")
+    public void capturesFirst() {
+        ChessGame game = Fen.parse(POSITIONS[1]);
+        ChessBoard board = game.getBoard();
+        MoveIterator iterator = new MoveIterator().reset(board, game.getTeamTurn());
+
+        int lastVictim = Integer.MAX_VALUE;
+        boolean quiet = false;
+        for (int move = iterator.next(); move != Move.NONE; move = iterator.next()) {
+            if (Move.isCapture(move)) {
+                Assertions.assertFalse(quiet, "Capture " + Move.toString(move) + " after a quiet move");
+                int victim = value(board.pieceAt(Move.to(move)).getPieceType());
+                Assertions.assertTrue(victim <= lastVictim, "Captures out of order at " + Move.toString(move));
+                lastVictim = victim;
+            } else {
+                quiet = true;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Only Evasions in Check")
+    public void evasions() {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/3q4/4K3 w - - 0 1");
+        MoveIterator iterator = new MoveIterator().reset(game.getBoard(), game.getTeamTurn());
+        Assertions.assertTrue(iterator.inCheck());
+        int capture = Move.encode(Bitboards.square(1, 5), Bitboards.square(2, 4));
+        Assertions.assertTrue(Move.same(capture, iterator.next()), "Capturing the checker should come first");
+    }
+
+    private static int value(ChessPiece.PieceType type) {
+        return switch (type) {
+            case QUEEN -> 9;
+            case ROOK -> 5;
+            case BISHOP, KNIGHT -> 3;
+            case PAWN -> 1;
+            case KING -> 0;
+        };
+    }
+}
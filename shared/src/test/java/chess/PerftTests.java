@@ -0,0 +1,94 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * Perft counts for the usual reference positions. Castling and en passant are
+ * not part of these rules, so the castling rights and en passant squares are
+ * left out of the FENs and the deeper counts differ from the published tables
+ * wherever those moves would appear. The counts here come from the original
+ * try-every-move implementation of validMoves.
+ */
+public class PerftTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 0 1";
+    private static final String POSITION_6 =
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1";
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        assertCounts(Fen.START, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    public void kiwipete() {
+        assertCounts(KIWIPETE, 46, 1865, 86585);
+    }
+
+    @Test
+    @DisplayName("Rook and Pawn Endgame")
+    public void position3() {
+        assertCounts(POSITION_3, 14, 191, 2810, 43087, 671300);
+    }
+
+    @Test
+    @DisplayName("Promotions and Checks")
+    public void position4() {
+        assertCounts(POSITION_4, 6, 258, 9217);
+    }
+
+    @Test
+    @DisplayName("Promotion by Capture")
+    public void position5() {
+        assertCounts(POSITION_5, 43, 1452, 59922);
+    }
+
+    @Test
+    @DisplayName("Symmetrical Middlegame")
+    public void position6() {
+        assertCounts(POSITION_6, 46, 2079, 89890);
+    }
+
+    @Test
+    @DisplayName("Divide Adds Up")
+    public void divideAddsUp() {
+        Perft perft = new Perft(Fen.parse(KIWIPETE));
+        Map<ChessMove, Long> divide = perft.divide(2);
+        Assertions.assertEquals(46, divide.size(), "Wrong number of root moves");
+        Assertions.assertEquals(1865, divide.values().stream().mapToLong(Long::longValue).sum(),
+                "Divide does not add up to the perft count");
+    }
+
+    @Test
+    @DisplayName("Parallel Matches Serial")
+    public void parallelMatchesSerial() {
+        Perft perft = new Perft(Fen.parse(POSITION_6));
+        Assertions.assertEquals(perft.count(3), perft.parallel(3), "Parallel count differs");
+    }
+
+    @Test
+    @DisplayName("Counting Leaves the Game Untouched")
+    public void gameUntouched() {
+        ChessGame game = Fen.parse(POSITION_4);
+        long key = game.positionKey();
+        new Perft(game).count(3);
+        Assertions.assertEquals(key, game.positionKey(), "Perft changed the game's board");
+        Assertions.assertEquals(POSITION_4, Fen.toFen(game), "FEN round trip failed");
+    }
+
+    private static void assertCounts(String fen, long... expected) {
+        Perft perft = new Perft(Fen.parse(fen));
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], perft.count(depth), "Wrong count at depth " + depth);
+        }
+    }
+}
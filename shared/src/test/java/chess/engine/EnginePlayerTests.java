@@ -0,0 +1,88 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class EnginePlayerTests {
+
+    // far longer than any search here takes, so a slow machine only makes the tests slower
+    private static final long WAIT_SECONDS = 60;
+    private static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1";
+
+    @Test
+    @DisplayName("Ponder Hit Reuses the Running Search")
+    public void ponderHit() throws Exception {
+        try (EnginePlayer player = new EnginePlayer()) {
+            ChessGame game = Fen.parse(MIDDLEGAME);
+            SearchResult ours = player.move(game, 5_000, 0).get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertTrue(ours.pv().size() >= 2, "No expected reply in " + ours.pv());
+            game.makeMove(ours.bestMove());
+            player.ponder(game, ours);
+            CompletableFuture<SearchResult> pondering = player.ponderSearch();
+            Assertions.assertNotNull(pondering, "Not pondering");
+
+            game.makeMove(ours.pv().get(1));
+            CompletableFuture<SearchResult> move = player.move(game, 5_000, 0);
+            Assertions.assertSame(pondering, move, "Ponder hit started a new search");
+            SearchResult reply = move.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertNotNull(reply.bestMove());
+            Assertions.assertTrue(game.validMoves(reply.bestMove().getStartPosition()).contains(reply.bestMove()));
+        }
+    }
+
+    @Test
+    @DisplayName("Ponder Miss Searches the Real Position")
+    public void ponderMiss() throws Exception {
+        try (EnginePlayer player = new EnginePlayer()) {
+            ChessGame game = Fen.parse(MIDDLEGAME);
+            SearchResult ours = player.move(game, 5_000, 0).get(WAIT_SECONDS, TimeUnit.SECONDS);
+            game.makeMove(ours.bestMove());
+            player.ponder(game, ours);
+
+            // any legal reply other than the expected one
+            ChessMove other = null;
+            for (ChessPosition from : game.getBoard().allTeamPosition(game.getTeamTurn())) {
+                for (ChessMove move : game.validMoves(from)) {
+                    if (!move.equals(ours.pv().get(1))) {
+                        other = move;
+                    }
+                }
+            }
+            game.makeMove(other);
+            CompletableFuture<SearchResult> pondering = player.ponderSearch();
+            CompletableFuture<SearchResult> move = player.move(game, 5_000, 0);
+            Assertions.assertNotSame(pondering, move, "Ponder miss kept the ponder search");
+            Assertions.assertNull(player.ponderSearch());
+            SearchResult reply = move.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertTrue(game.validMoves(reply.bestMove().getStartPosition()).contains(reply.bestMove()),
+                    "Move for the wrong position " + reply.bestMove());
+        }
+    }
+
+    @Test
+    @DisplayName("Replaced and Closed Searches Do Not Run Their Clock Out")
+    public void cancelled() throws Exception {
+        ChessGame game = Fen.parse(MIDDLEGAME);
+        try (EnginePlayer player = new EnginePlayer()) {
+            // a long think, queued or running, then replaced by a quick one; the searches run one at a
+            // time, so the quick one finishing means the long one was stopped rather than waited out
+            CompletableFuture<SearchResult> replaced = player.move(game, 600_000, 0);
+            SearchResult quick = player.move(game, 1_000, 0).get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertNotNull(quick.bestMove());
+            Assertions.assertTrue(replaced.isDone(), "Replaced search still running");
+
+            CompletableFuture<SearchResult> closed = player.move(game, 600_000, 0);
+            player.close();
+            closed.handle((result, failure) -> null).get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertThrows(IllegalStateException.class, () -> player.move(game, 1_000, 0));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EvaluationTests {
+
+    @Test
+    @DisplayName("Running Totals Match a Fresh Scan")
+    public void incrementalMatchesReset() {
+        Random random = new Random(42);
+        // plenty of captures and promotions along the way
+        ChessGame game = Fen.parse("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1");
+        ChessBoard board = ChessBoard.copyOf(game.getBoard());
+        Evaluation evaluation = new Evaluation().reset(board);
+        ChessGame.TeamColor side = game.getTeamTurn();
+        int start = evaluation.evaluate(side);
+        MoveList moves = new MoveList();
+        int played = 0;
+
+        for (int ply = 0; ply < 200; ply++) {
+            moves.clear();
+            MoveGenerator.legalMoves(board, side, -1L, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            evaluation.makeMove(moves.get(random.nextInt(moves.size())));
+            played++;
+            side = side.opposite();
+
+            Evaluation fresh = new Evaluation().reset(ChessBoard.copyOf(board));
+            Assertions.assertEquals(fresh.evaluate(side), evaluation.evaluate(side), "Totals drifted at ply " + ply);
+            Assertions.assertEquals(fresh.phase(), evaluation.phase());
+        }
+        for (int i = 0; i < played; i++) {
+            evaluation.unmakeMove();
+        }
+        Assertions.assertEquals(start, evaluation.evaluate(game.getTeamTurn()), "Unmaking did not restore the totals");
+    }
+
+    @Test
+    @DisplayName("Mirrored Positions Score the Same")
+    public void symmetric() {
+        Evaluation white = new Evaluation().reset(
+                Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 0 1").getBoard());
+        Evaluation black = new Evaluation().reset(
+                Fen.parse("rnbqkb1r/pppp1ppp/5n2/4p3/4P3/2N5/PPPP1PPP/R1BQKBNR b - - 0 1").getBoard());
+        Assertions.assertEquals(white.evaluate(ChessGame.TeamColor.WHITE), black.evaluate(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(0, new Evaluation().reset(Fen.parse(Fen.START).getBoard())
+                .evaluate(ChessGame.TeamColor.WHITE));
+    }
+}
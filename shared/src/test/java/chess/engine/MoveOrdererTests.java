@@ -0,0 +1,89 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class MoveOrdererTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+    @Test
+    @DisplayName("Every Legal Move Exactly Once")
+    public void allMovesOnce() {
+        ChessGame game = Fen.parse(KIWIPETE);
+        ChessBoard board = game.getBoard();
+        MoveList legal = new MoveList();
+        MoveGenerator.legalMoves(board, game.getTeamTurn(), -1L, legal);
+
+        MoveOrderer orderer = new MoveOrderer();
+        int quiet = quietMove(legal);
+        int ttMove = legal.get(legal.size() - 1);
+        orderer.cutoff(1, game.getTeamTurn(), quiet, 4);
+        // a killer that is not legal here must be skipped
+        orderer.cutoff(1, game.getTeamTurn(), Move.encode(Bitboards.square(1, 1), Bitboards.square(8, 8)), 4);
+
+        MoveOrderer.Picker picker = orderer.picker(1, board, game.getTeamTurn(), ttMove);
+        Set<Integer> seen = new HashSet<>();
+        int first = picker.next();
+        Assertions.assertTrue(Move.same(ttMove, first), "Table move should come first");
+        for (int move = first; move != Move.NONE; move = picker.next()) {
+            Assertions.assertTrue(legal.contains(move), "Illegal move " + Move.toString(move));
+            Assertions.assertTrue(seen.add(move & 0x7FFF), "Duplicate move " + Move.toString(move));
+        }
+        Assertions.assertEquals(legal.size(), seen.size());
+        Assertions.assertEquals(legal.size(), picker.picked());
+    }
+
+    @Test
+    @DisplayName("Captures, Then Killers, Then Quiets, Then Losing Captures")
+    public void stageOrder() {
+        ChessGame game = Fen.parse(KIWIPETE);
+        ChessBoard board = game.getBoard();
+        MoveList legal = new MoveList();
+        MoveGenerator.legalMoves(board, game.getTeamTurn(), -1L, legal);
+        MoveOrderer orderer = new MoveOrderer();
+        int killer = quietMove(legal);
+        orderer.cutoff(3, game.getTeamTurn(), killer, 2);
+
+        MoveOrderer.Picker picker = orderer.picker(3, board, game.getTeamTurn(), Move.NONE);
+        int lastCapture = Integer.MAX_VALUE;
+        int move;
+        while (Move.isCapture(move = picker.next())) {
+            int victim = Evaluation.VALUES[board.pieceAt(Move.to(move)).getPieceType().ordinal()];
+            Assertions.assertTrue(victim <= lastCapture, "Captures out of victim order");
+            lastCapture = victim;
+        }
+        Assertions.assertNotEquals(Integer.MAX_VALUE, lastCapture, "Position has captures");
+        Assertions.assertTrue(Move.same(killer, move), "Killer should follow the captures");
+        boolean losingCaptures = false;
+        while ((move = picker.next()) != Move.NONE) {
+            if (Move.isCapture(move)) {
+                Assertions.assertTrue(StaticExchange.evaluate(board, move) < 0,
+                        "Only losing captures may come after the quiet moves: " + Move.toString(move));
+                losingCaptures = true;
+            } else {
+                Assertions.assertFalse(losingCaptures, "Quiet move after the losing captures");
+            }
+        }
+    }
+
+    private static int quietMove(MoveList moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (MoveOrderer.isQuiet(moves.get(i))) {
+                return moves.get(i);
+            }
+        }
+        throw new AssertionError("No quiet move");
+    }
+}
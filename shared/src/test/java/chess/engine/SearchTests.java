@@ -0,0 +1,115 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate in One")
+    public void mateInOne() {
+        // back rank: Ra8#
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                result.bestMove());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds Mate in Two")
+    public void mateInTwo() {
+        // Kb6 Kb8 Rh8#
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertTrue(Search.isMate(result.score()), "No mate found, score " + result.score());
+        Assertions.assertEquals(Search.MATE - 3, result.score());
+        Assertions.assertEquals(3, result.pv().size(), "PV should run to the mate: " + result.pv());
+    }
+
+    @Test
+    @DisplayName("Takes a Hanging Queen")
+    public void hangingQueen() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(2));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(5, 4), null),
+                result.bestMove());
+    }
+
+    @Test
+    @DisplayName("No Move When Mated")
+    public void mated() {
+        ChessGame game = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    @DisplayName("Time Limit Still Gives a Move")
+    public void timeLimit() {
+        ChessGame game = Fen.parse(Fen.START);
+        String before = Fen.toFen(game);
+        SearchResult result = new Search().search(game, SearchLimits.time(100));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(result.timeMillis() < 2000, "Search ran " + result.timeMillis() + " ms");
+        Assertions.assertEquals(before, Fen.toFen(game), "Search changed the game");
+    }
+
+    @Test
+    @DisplayName("Helper Threads Agree on the Mate")
+    public void helperThreads() {
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult single = new Search().search(game, SearchLimits.depth(5));
+        SearchResult shared = new Search().search(game, SearchLimits.depth(5).withThreads(3));
+        Assertions.assertEquals(single.score(), shared.score());
+        Assertions.assertTrue(shared.nodes() > 0);
+    }
+
+    @Test
+    @DisplayName("Pruning Searches Fewer Nodes and Keeps the Mate")
+    public void pruning() {
+        ChessGame middlegame = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+        SearchResult full = new Search(new TranspositionTable(1), Pruning.NONE).search(middlegame, SearchLimits.depth(5));
+        SearchResult pruned = new Search(new TranspositionTable(1), Pruning.ALL).search(middlegame, SearchLimits.depth(5));
+        Assertions.assertTrue(pruned.nodes() < full.nodes(), pruned.nodes() + " nodes against " + full.nodes());
+
+        ChessGame mate = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = new Search(new TranspositionTable(1), Pruning.ALL).search(mate, SearchLimits.depth(6));
+        Assertions.assertEquals(Search.MATE - 3, result.score());
+    }
+
+    @Test
+    @DisplayName("Multi-PV Lines Come Best First, Reported Every Iteration")
+    public void multiPv() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+        List<SearchResult> progress = new ArrayList<>();
+        SearchResult result = new Search().search(game, SearchLimits.depth(4).withMultiPv(3), progress::add);
+
+        Assertions.assertEquals(3, result.lines().size());
+        Assertions.assertEquals(result.bestMove(), result.lines().get(0).pv().get(0));
+        Set<ChessMove> firstMoves = new HashSet<>();
+        for (int i = 0; i < result.lines().size(); i++) {
+            SearchResult.Line line = result.lines().get(i);
+            Assertions.assertTrue(firstMoves.add(line.pv().get(0)), "Two lines start with " + line.pv().get(0));
+            if (i > 0) {
+                Assertions.assertTrue(line.score() <= result.lines().get(i - 1).score(), "Lines out of order");
+            }
+        }
+        Assertions.assertEquals(result.depth(), progress.size());
+        for (int i = 0; i < progress.size(); i++) {
+            Assertions.assertEquals(i + 1, progress.get(i).depth());
+        }
+    }
+}
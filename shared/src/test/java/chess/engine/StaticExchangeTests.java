@@ -0,0 +1,68 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StaticExchangeTests {
+
+    @Test
+    @DisplayName("Free Piece")
+    public void undefended() {
+        // Rxe5, nothing takes back
+        ChessBoard board = Fen.parse("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1").getBoard();
+        Assertions.assertEquals(100, StaticExchange.evaluate(board, move(1, 5, 5, 5)));
+    }
+
+    @Test
+    @DisplayName("Defended Pawn Costs the Knight")
+    public void defended() {
+        // Nxe5 Nxe5, and taking back again only loses more, so the knight goes for a pawn
+        ChessBoard board = Fen.parse("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1").getBoard();
+        Assertions.assertEquals(100 - 320, StaticExchange.evaluate(board, move(3, 4, 5, 5)));
+    }
+
+    @Test
+    @DisplayName("X-Ray Attackers Join In")
+    public void xray() {
+        // Rxd5 Rxd5 Rxd5: the doubled rooks win the pawn, the rook behind joins after the first one goes
+        ChessBoard board = Fen.parse("3r2k1/8/8/3p4/8/8/3R4/3R2K1 w - - 0 1").getBoard();
+        Assertions.assertEquals(100, StaticExchange.evaluate(board, move(2, 4, 5, 4)));
+    }
+
+    @Test
+    @DisplayName("Threshold Check Agrees With the Full Value")
+    public void thresholdAgrees() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 b - - 0 1",
+        };
+        int[] thresholds = {-500, -100, 0, 1, 100, 300};
+        for (String fen : fens) {
+            ChessGame game = Fen.parse(fen);
+            ChessBoard board = game.getBoard();
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(board, game.getTeamTurn(), -1L, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int value = StaticExchange.evaluate(board, move);
+                for (int threshold : thresholds) {
+                    Assertions.assertEquals(value >= threshold, StaticExchange.atLeast(board, move, threshold),
+                            Move.toString(move) + " worth " + value + " against " + threshold + " in " + fen);
+                }
+            }
+        }
+    }
+
+    private static int move(int fromRow, int fromCol, int toRow, int toCol) {
+        return Move.encode(Bitboards.square(fromRow, fromCol), Bitboards.square(toRow, toCol));
+    }
+}
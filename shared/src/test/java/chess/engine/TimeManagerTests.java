@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimeManagerTests {
+
+    @Test
+    @DisplayName("Even Share of the Clock Plus the Increment")
+    public void share() {
+        SearchLimits limits = TimeManager.limits(60_050, 1_000);
+        Assertions.assertEquals(60_000 / TimeManager.DEFAULT_MOVES_TO_GO + 750, limits.softTimeMillis());
+        Assertions.assertTrue(limits.timeMillis() > limits.softTimeMillis());
+        Assertions.assertEquals(SearchLimits.MAX_DEPTH, limits.depth());
+    }
+
+    @Test
+    @DisplayName("Never More Than Half the Clock")
+    public void shortOnTime() {
+        // a large increment must not tempt it into flagging
+        SearchLimits limits = TimeManager.limits(450, 5_000);
+        Assertions.assertTrue(limits.timeMillis() <= 200, "Hard limit " + limits.timeMillis());
+        Assertions.assertTrue(limits.softTimeMillis() <= limits.timeMillis());
+
+        SearchLimits empty = TimeManager.limits(0, 0);
+        Assertions.assertTrue(empty.softTimeMillis() >= 1 && empty.timeMillis() >= 1);
+    }
+
+    @Test
+    @DisplayName("Soft Limit Shrinks While the Best Move Holds")
+    public void stableBudget() {
+        long soft = 1_000_000_000L;
+        Assertions.assertEquals(soft, Search.softBudget(soft, 0));
+        for (int stable = 1; stable < 10; stable++) {
+            Assertions.assertTrue(Search.softBudget(soft, stable) <= Search.softBudget(soft, stable - 1));
+        }
+        Assertions.assertTrue(Search.softBudget(soft, 4) <= soft / 2);
+    }
+
+    @Test
+    @DisplayName("Stops at the First Iteration Past the Shrunk Limit")
+    public void stopsEarly() {
+        // only one sensible move, so iterations agree and the soft limit shrinks
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        long soft = 1_000;
+        List<SearchResult> iterations = new ArrayList<>();
+        SearchResult result = new Search().search(game, SearchLimits.time(soft, 20_000), iterations::add);
+
+        // every iteration but the last must have ended inside its budget, or the search should have stopped there;
+        // the times come from the search's own clock, which it started before any of them
+        int stable = 0;
+        int maxStable = 0;
+        for (int i = 0; i < iterations.size() - 1; i++) {
+            if (i > 0 && iterations.get(i).bestMove().equals(iterations.get(i - 1).bestMove())) {
+                stable++;
+            } else if (i > 0) {
+                stable = 0;
+            }
+            maxStable = Math.max(maxStable, stable);
+            long budget = Search.softBudget(soft * 1_000_000, stable) / 1_000_000;
+            Assertions.assertTrue(iterations.get(i).timeMillis() <= budget,
+                    "Depth " + iterations.get(i).depth() + " ended at " + iterations.get(i).timeMillis()
+                            + " ms against a budget of " + budget + " ms");
+        }
+        Assertions.assertTrue(maxStable > 0, "Best move never held, so the limit never shrank");
+        Assertions.assertFalse(Search.isMate(result.score()), "Stopped on a mate, not the clock");
+        Assertions.assertTrue(result.depth() < SearchLimits.MAX_DEPTH, "Ran to the depth limit, not the clock");
+    }
+}
@@ -0,0 +1,72 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Store and Probe")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1, true);
+        long key = 0x123456789ABCDEFL;
+        int move = Move.encode(12, 28) | Move.CAPTURE;
+        table.store(key, move, -250, 7, TranspositionTable.LOWER);
+
+        long entry = table.probe(key);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-250, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0, table.probe(key + 1), "Different key should miss");
+        Assertions.assertEquals(0.5, table.hitRate());
+    }
+
+    @Test
+    @DisplayName("No Counting Without Stats")
+    public void noStats() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, Move.NONE, 0, 1, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(0, table.probe(42));
+        Assertions.assertEquals(0, table.probes());
+        Assertions.assertEquals(0, table.hits());
+        Assertions.assertEquals(0, table.stores());
+    }
+
+    @Test
+    @DisplayName("Deep Entry Survives a Shallow One")
+    public void depthPreferred() {
+        TranspositionTable table = new TranspositionTable(1);
+        // same bucket (high bits), different keys
+        long deep = 0x0000000100000001L;
+        long shallow = 0x0000000100000002L;
+        long newer = 0x0000000100000003L;
+        table.store(deep, Move.NONE, 10, 9, TranspositionTable.EXACT);
+        table.store(shallow, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        table.store(newer, Move.NONE, 30, 1, TranspositionTable.EXACT);
+
+        Assertions.assertNotEquals(0, table.probe(deep), "Deep entry was replaced");
+        Assertions.assertNotEquals(0, table.probe(newer), "Newest entry was not stored");
+
+        table.newSearch();
+        table.store(shallow, Move.NONE, 20, 1, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(deep), "Entry from an old search should give way");
+    }
+
+    @Test
+    @DisplayName("Shared Table Gives the Same Answer")
+    public void sharedTable() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+        TranspositionTable table = new TranspositionTable(4, true);
+        SearchResult first = new Search(table).search(game, SearchLimits.depth(4));
+        SearchResult second = new Search(table).search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertTrue(second.nodes() < first.nodes(), "Second search should reuse the table");
+        Assertions.assertTrue(table.hits() > 0);
+    }
+}